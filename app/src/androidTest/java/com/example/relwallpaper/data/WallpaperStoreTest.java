@@ -0,0 +1,98 @@
+package com.example.relwallpaper.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class WallpaperStoreTest {
+
+    private static final String CARD_PAGE = "["
+            + "{\"id\":\"store-test-1\",\"name\":\"Dunes\","
+            + "\"image_url\":\"https://x/dunes.jpg\",\"width\":1080,\"height\":2400,"
+            + "\"created_at\":\"2025-02-01T00:00:00+00:00\",\"tags\":[\"nature\",\"Gradients\"],"
+            + "\"color_palette\":[\"#C08040\"],\"users\":{\"username\":\"sandy\"}},"
+            + "{\"id\":\"store-test-2\",\"name\":\"Grid\","
+            + "\"image_url\":\"https://x/grid.jpg\",\"width\":1080,\"height\":2400,"
+            + "\"created_at\":\"2025-01-01T00:00:00+00:00\",\"tags\":[\"Retro\"],"
+            + "\"color_palette\":[\"#202020\"],\"users\":{\"username\":\"rel\"}}]";
+
+    private WallpaperStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        store = WallpaperStore.getInstance(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        store.save(WallpaperDecoder.decodeList(new StringReader(CARD_PAGE)));
+    }
+
+    @After
+    public void tearDown() {
+        store.delete("store-test-1");
+        store.delete("store-test-2");
+    }
+
+    @Test
+    public void byTag_readsBackSavedCardPage() throws InterruptedException {
+        List<String> ids = ids(await(callback -> store.byTag("Nature", 50, callback)));
+
+        assertTrue(ids.contains("store-test-1"));
+        assertTrue(!ids.contains("store-test-2"));
+    }
+
+    @Test
+    public void search_matchesNameUsernameAndTag() throws InterruptedException {
+        assertTrue(ids(await(callback -> store.search("dune", 50, callback))).contains("store-test-1"));
+        assertTrue(ids(await(callback -> store.search("sandy", 50, callback))).contains("store-test-1"));
+        assertTrue(ids(await(callback -> store.search("retro", 50, callback))).contains("store-test-2"));
+    }
+
+    @Test
+    public void byTag_keepsCardFields() throws InterruptedException {
+        Wallpaper grid = null;
+        for (Wallpaper wallpaper : await(callback -> store.byTag("Retro", 50, callback))) {
+            if ("store-test-2".equals(wallpaper.getId())) {
+                grid = wallpaper;
+            }
+        }
+
+        assertEquals("Grid", grid.getName());
+        assertEquals("rel", grid.getUsername());
+        assertEquals(1080, grid.getWidth());
+    }
+
+    private interface Query {
+        void run(WallpaperStore.ResultCallback<List<Wallpaper>> callback);
+    }
+
+    private static List<Wallpaper> await(Query query) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Wallpaper> result = new ArrayList<>();
+        query.run(wallpapers -> {
+            result.addAll(wallpapers);
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static List<String> ids(List<Wallpaper> wallpapers) {
+        List<String> ids = new ArrayList<>();
+        for (Wallpaper wallpaper : wallpapers) {
+            ids.add(wallpaper.getId());
+        }
+        return ids;
+    }
+}
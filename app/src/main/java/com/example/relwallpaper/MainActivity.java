@@ -50,6 +50,7 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.search.SearchBar;
+import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.search.SearchView;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -72,7 +73,7 @@ public class MainActivity extends AppCompatActivity {
 
     private CountDownTimer jwtCountdownTimer;
     private AlertDialog sessionExpiredDialog;
-    private AlertDialog noInternetDialog;
+    private Snackbar offlineSnackbar;
     private static final String TAG = "MainActivity";
 
     private ConnectivityManager connectivityManager;
@@ -145,7 +146,7 @@ public class MainActivity extends AppCompatActivity {
         initializeNetworkMonitoring();
 
         if (!isInternetAvailable()) {
-            showNoInternetDialog();
+            showOfflineNotice();
         } else {
             startJwtSessionMonitoring();
         }
@@ -155,11 +156,9 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         if (!isInternetAvailable()) {
-            showNoInternetDialog();
+            showOfflineNotice();
         } else {
-            if (noInternetDialog != null && noInternetDialog.isShowing()) {
-                noInternetDialog.dismiss();
-            }
+            hideOfflineNotice();
             checkJwtExpiration();
         }
     }
@@ -169,8 +168,7 @@ public class MainActivity extends AppCompatActivity {
         public void onAvailable(@NonNull Network network) {
             super.onAvailable(network);
             runOnUiThread(() -> {
-                if (noInternetDialog != null && noInternetDialog.isShowing()) {
-                    noInternetDialog.dismiss();
+                if (hideOfflineNotice()) {
                     startJwtSessionMonitoring();
                     Toast.makeText(MainActivity.this, "Connection restored", Toast.LENGTH_SHORT).show();
                 }
@@ -182,7 +180,7 @@ public class MainActivity extends AppCompatActivity {
             super.onLost(network);
             runOnUiThread(() -> {
                 if (!isInternetAvailable()) {
-                    showNoInternetDialog();
+                    showOfflineNotice();
                 }
             });
         }
@@ -193,13 +191,12 @@ public class MainActivity extends AppCompatActivity {
         public void onReceive(Context context, Intent intent) {
             if (ConnectivityManager.CONNECTIVITY_ACTION.equals(intent.getAction())) {
                 if (isInternetAvailable()) {
-                    if (noInternetDialog != null && noInternetDialog.isShowing()) {
-                        noInternetDialog.dismiss();
+                    if (hideOfflineNotice()) {
                         startJwtSessionMonitoring();
                         Toast.makeText(MainActivity.this, "Connection restored", Toast.LENGTH_SHORT).show();
                     }
                 } else {
-                    showNoInternetDialog();
+                    showOfflineNotice();
                 }
             }
         }
@@ -240,8 +237,8 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void showNoInternetDialog() {
-        if (noInternetDialog != null && noInternetDialog.isShowing()) {
+    private void showOfflineNotice() {
+        if (offlineSnackbar != null && offlineSnackbar.isShown()) {
             return;
         }
 
@@ -249,27 +246,30 @@ public class MainActivity extends AppCompatActivity {
             jwtCountdownTimer.cancel();
         }
 
-        noInternetDialog = new MaterialAlertDialogBuilder(this)
-                .setTitle("No Internet Connection")
-                .setMessage("This app requires an internet connection to function properly. Please check your network connection and try again.")
-                .setIcon(R.drawable.ic_baseline_signal_wifi_off_24)
-                .setPositiveButton("Retry", (dialog, which) -> {
+        offlineSnackbar = Snackbar.make(binding.getRoot(),
+                        "You're offline. Showing saved wallpapers.", Snackbar.LENGTH_INDEFINITE)
+                .setAnchorView(binding.navView)
+                .setAction("Retry", v -> {
                     if (isInternetAvailable()) {
-                        dialog.dismiss();
+                        hideOfflineNotice();
                         startJwtSessionMonitoring();
                         Toast.makeText(MainActivity.this, "Connection restored", Toast.LENGTH_SHORT).show();
                     } else {
                         Toast.makeText(MainActivity.this, "Still no internet connection", Toast.LENGTH_SHORT).show();
-                        showNoInternetDialog();
+                        offlineSnackbar = null;
+                        showOfflineNotice();
                     }
-                })
-                .setNegativeButton("Exit App", (dialog, which) -> {
-                    finish();
-                })
-                .setCancelable(false)
-                .create();
+                });
+        offlineSnackbar.show();
+    }
 
-        noInternetDialog.show();
+    private boolean hideOfflineNotice() {
+        if (offlineSnackbar == null) {
+            return false;
+        }
+        offlineSnackbar.dismiss();
+        offlineSnackbar = null;
+        return true;
     }
 
     private void startJwtSessionMonitoring() {
@@ -306,7 +306,7 @@ public class MainActivity extends AppCompatActivity {
 
     private void checkJwtExpiration() {
         if (!isInternetAvailable()) {
-            showNoInternetDialog();
+            showOfflineNotice();
             return;
         }
 
@@ -703,9 +703,7 @@ public class MainActivity extends AppCompatActivity {
             sessionExpiredDialog.dismiss();
         }
 
-        if (noInternetDialog != null && noInternetDialog.isShowing()) {
-            noInternetDialog.dismiss();
-        }
+        hideOfflineNotice();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && networkCallback != null) {
             try {
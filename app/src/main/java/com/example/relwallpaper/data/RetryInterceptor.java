@@ -0,0 +1,68 @@
+package com.example.relwallpaper.data;
+
+import androidx.annotation.NonNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class RetryInterceptor implements Interceptor {
+
+    private static final long BASE_BACKOFF_MS = 300;
+
+    private final int maxRetries;
+
+    public RetryInterceptor(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isIdempotent(request)) {
+            return chain.proceed(request);
+        }
+
+        IOException lastError = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+            try {
+                Response response = chain.proceed(request);
+                if (!isRetryable(response.code()) || attempt == maxRetries) {
+                    return response;
+                }
+                response.close();
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    throw e;
+                }
+                lastError = e;
+            }
+        }
+        throw lastError != null ? lastError : new IOException("Request failed after retries");
+    }
+
+    private boolean isIdempotent(Request request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private void backoff(int attempt) throws IOException {
+        try {
+            Thread.sleep(BASE_BACKOFF_MS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry interrupted");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.relwallpaper.data;
+
+import java.util.List;
+import okhttp3.HttpUrl;
+
+public final class StorageImageUrls {
+
+    public static final int DEFAULT_QUALITY = 75;
+    private static final int MAX_DIMENSION = 2500;
+
+    private StorageImageUrls() {
+    }
+
+    public static String render(String objectUrl, int width, int height) {
+        return render(objectUrl, width, height, DEFAULT_QUALITY);
+    }
+
+    public static String render(String objectUrl, int width, int height, int quality) {
+        if (objectUrl == null || width <= 0 || height <= 0) return objectUrl;
+        HttpUrl url = HttpUrl.parse(objectUrl);
+        if (url == null) return objectUrl;
+
+        List<String> segments = url.pathSegments();
+        int start = indexOfPublicObject(segments);
+        if (start < 0) return objectUrl;
+
+        HttpUrl.Builder builder = url.newBuilder().encodedPath("/");
+        for (int i = 0; i < start; i++) {
+            builder.addPathSegment(segments.get(i));
+        }
+        builder.addPathSegments("storage/v1/render/image/public");
+        for (int i = start + 4; i < segments.size(); i++) {
+            builder.addPathSegment(segments.get(i));
+        }
+        int longest = Math.max(width, height);
+        if (longest > MAX_DIMENSION) {
+            width = Math.max(1, Math.round((float) width * MAX_DIMENSION / longest));
+            height = Math.max(1, Math.round((float) height * MAX_DIMENSION / longest));
+        }
+        return builder
+                .setQueryParameter("width", String.valueOf(width))
+                .setQueryParameter("height", String.valueOf(height))
+                .setQueryParameter("resize", "cover")
+                .setQueryParameter("quality", String.valueOf(Math.max(20, Math.min(quality, 100))))
+                .build()
+                .toString();
+    }
+
+    private static int indexOfPublicObject(List<String> segments) {
+        for (int i = 0; i + 4 < segments.size(); i++) {
+            if ("storage".equals(segments.get(i))
+                    && "v1".equals(segments.get(i + 1))
+                    && "object".equals(segments.get(i + 2))
+                    && "public".equals(segments.get(i + 3))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.relwallpaper.data;
+
+import androidx.annotation.NonNull;
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class SupabaseAuthInterceptor implements Interceptor {
+
+    public interface TokenProvider {
+        String getAccessToken();
+    }
+
+    private final String apiKey;
+    private final TokenProvider tokenProvider;
+
+    public SupabaseAuthInterceptor(String apiKey, TokenProvider tokenProvider) {
+        this.apiKey = apiKey;
+        this.tokenProvider = tokenProvider;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request original = chain.request();
+        Request.Builder builder = original.newBuilder();
+
+        if (original.header("apikey") == null) {
+            builder.header("apikey", apiKey);
+        }
+        if (original.header("Authorization") == null) {
+            String token = tokenProvider.getAccessToken();
+            builder.header("Authorization", "Bearer " + (token != null ? token : apiKey));
+        }
+        if (original.header("Accept") == null) {
+            builder.header("Accept", "application/json");
+        }
+
+        return chain.proceed(builder.build());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.relwallpaper.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.example.relwallpaper.BuildConfig;
+import com.example.relwallpaper.ui.MyApplication;
+import org.json.JSONException;
+import org.json.JSONObject;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+public class SupabaseGateway {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final int MAX_RETRIES = 2;
+    private static SupabaseGateway instance;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final OkHttpClient httpClient;
+
+    public SupabaseGateway(String baseUrl, String apiKey, OkHttpClient sharedClient,
+                           SupabaseAuthInterceptor.TokenProvider tokenProvider) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.httpClient = sharedClient.newBuilder()
+                .addInterceptor(new SupabaseAuthInterceptor(apiKey, tokenProvider))
+                .addInterceptor(new RetryInterceptor(MAX_RETRIES))
+                .build();
+    }
+
+    public static synchronized SupabaseGateway getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            SharedPreferences authPrefs = appContext.getSharedPreferences("auth", Context.MODE_PRIVATE);
+            instance = new SupabaseGateway(
+                    BuildConfig.SUPABASE_URL,
+                    BuildConfig.SUPABASE_API_KEY,
+                    MyApplication.getHttpClient(appContext),
+                    () -> authPrefs.getString("supabase_access_token", null));
+        }
+        return instance;
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public SupabaseQuery from(String table) {
+        return new SupabaseQuery(table);
+    }
+
+    public Call select(SupabaseQuery query, Callback callback) {
+        Request request = new Request.Builder()
+                .url(query.toUrl(baseUrl()))
+                .get()
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public Call insert(String table, JSONObject row, Callback callback) {
+        Request request = new Request.Builder()
+                .url(new SupabaseQuery(table).toUrl(baseUrl()))
+                .post(RequestBody.create(row.toString(), JSON))
+                .header("Prefer", "return=minimal")
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public Call delete(SupabaseQuery query, Callback callback) {
+        Request request = new Request.Builder()
+                .url(query.toUrl(baseUrl()))
+                .delete()
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public Call rpc(String function, JSONObject args, Callback callback) {
+        return rpc(function, args, null, callback);
+    }
+
+    public Call rpc(String function, JSONObject args, String columns, Callback callback) {
+        HttpUrl.Builder urlBuilder = baseUrl().newBuilder()
+                .addPathSegments("rest/v1/rpc")
+                .addPathSegment(function);
+        if (columns != null) {
+            urlBuilder.addQueryParameter("select", columns);
+        }
+        HttpUrl url = urlBuilder.build();
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(args.toString(), JSON))
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public Call uploadObject(String bucket, String path, byte[] bytes, String contentType, Callback callback) {
+        HttpUrl url = objectUrl(bucket, path).newBuilder()
+                .addQueryParameter("upsert", "true")
+                .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(bytes, MediaType.parse(contentType)))
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public Call deleteObject(String bucket, String path, Callback callback) {
+        Request request = new Request.Builder()
+                .url(objectUrl(bucket, path))
+                .delete()
+                .build();
+        return enqueue(request, callback);
+    }
+
+    public String publicObjectUrl(String bucket, String path) {
+        return baseUrl().newBuilder()
+                .addPathSegments("storage/v1/object/public")
+                .addPathSegment(bucket)
+                .addPathSegments(path)
+                .build()
+                .toString();
+    }
+
+    public Call signInWithIdToken(String provider, String idToken, Callback callback) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("provider", provider);
+        json.put("id_token", idToken);
+
+        HttpUrl url = baseUrl().newBuilder()
+                .addPathSegments("auth/v1/token")
+                .addQueryParameter("grant_type", "id_token")
+                .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(json.toString(), JSON))
+                .header("Authorization", "Bearer " + apiKey)
+                .build();
+        return enqueue(request, callback);
+    }
+
+    private HttpUrl objectUrl(String bucket, String path) {
+        return baseUrl().newBuilder()
+                .addPathSegments("storage/v1/object")
+                .addPathSegment(bucket)
+                .addPathSegments(path)
+                .build();
+    }
+
+    private HttpUrl baseUrl() {
+        return HttpUrl.get(baseUrl);
+    }
+
+    private Call enqueue(Request request, Callback callback) {
+        Call call = httpClient.newCall(request);
+        call.enqueue(callback);
+        return call;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.relwallpaper.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import okhttp3.HttpUrl;
+
+public class SupabaseQuery {
+
+    private final String table;
+    private final List<String[]> filters = new ArrayList<>();
+    private final List<String> orders = new ArrayList<>();
+    private String columns;
+    private int limit = -1;
+    private int offset = -1;
+
+    public SupabaseQuery(String table) {
+        this.table = table;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public SupabaseQuery select(String columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    public SupabaseQuery filter(String column, String operator, String value) {
+        filters.add(new String[]{column, operator + "." + value});
+        return this;
+    }
+
+    public SupabaseQuery eq(String column, String value) {
+        return filter(column, "eq", quote(value));
+    }
+
+    public SupabaseQuery lt(String column, String value) {
+        return filter(column, "lt", quote(value));
+    }
+
+    public SupabaseQuery ilike(String column, String pattern) {
+        return filter(column, "ilike", quote(pattern));
+    }
+
+    public SupabaseQuery contains(String column, Collection<String> values) {
+        return filter(column, "cs", arrayLiteral(values));
+    }
+
+    public SupabaseQuery or(String... conditions) {
+        filters.add(new String[]{"or", "(" + String.join(",", conditions) + ")"});
+        return this;
+    }
+
+    public SupabaseQuery order(String column, boolean ascending) {
+        orders.add(column + (ascending ? ".asc" : ".desc"));
+        return this;
+    }
+
+    public SupabaseQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public SupabaseQuery offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    public SupabaseQuery range(int from, int to) {
+        this.offset = from;
+        this.limit = to - from + 1;
+        return this;
+    }
+
+    HttpUrl toUrl(HttpUrl baseUrl) {
+        HttpUrl.Builder builder = baseUrl.newBuilder()
+                .addPathSegments("rest/v1")
+                .addPathSegment(table);
+
+        if (columns != null) {
+            builder.addQueryParameter("select", columns);
+        }
+        for (String[] filter : filters) {
+            builder.addQueryParameter(filter[0], filter[1]);
+        }
+        if (!orders.isEmpty()) {
+            builder.addQueryParameter("order", String.join(",", orders));
+        }
+        if (limit >= 0) {
+            builder.addQueryParameter("limit", String.valueOf(limit));
+        }
+        if (offset > 0) {
+            builder.addQueryParameter("offset", String.valueOf(offset));
+        }
+        return builder.build();
+    }
+
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '.' || c == ':' || c == '(' || c == ')' || c == '"' || c == '\\' || c == ' ') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            return value;
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    public static String arrayLiteral(Collection<String> values) {
+        StringBuilder builder = new StringBuilder("{");
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                builder.append(',');
+            }
+            builder.append('"')
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append('"');
+            first = false;
+        }
+        return builder.append('}').toString();
+    }
+}
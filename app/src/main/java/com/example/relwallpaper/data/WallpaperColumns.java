@@ -0,0 +1,12 @@
+package com.example.relwallpaper.data;
+
+public final class WallpaperColumns {
+
+    public static final String CARD = "id,name,image_url,width,height,created_at,tags,color_palette,users(username)";
+    public static final String UPLOAD = "id,name,image_url,file_name,created_at,tags";
+    public static final String DOWNLOAD = "id,name,image_url,created_at";
+    public static final String DETAIL = "id,name,description,image_url,width,height,file_name,created_at,tags,color_palette,users(username)";
+
+    private WallpaperColumns() {
+    }
+}
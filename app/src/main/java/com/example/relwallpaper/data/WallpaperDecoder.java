@@ -0,0 +1,115 @@
+package com.example.relwallpaper.data;
+
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class WallpaperDecoder {
+
+    private WallpaperDecoder() {
+    }
+
+    public static List<Wallpaper> decodeList(Reader source) throws IOException {
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(source)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                wallpapers.add(decodeWallpaper(reader));
+            }
+            reader.endArray();
+        }
+        return wallpapers;
+    }
+
+    private static Wallpaper decodeWallpaper(JsonReader reader) throws IOException {
+        Wallpaper wallpaper = new Wallpaper();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    wallpaper.setId(reader.nextString());
+                    break;
+                case "name":
+                    wallpaper.setName(reader.nextString());
+                    break;
+                case "description":
+                    wallpaper.setDescription(reader.nextString());
+                    break;
+                case "image_url":
+                    wallpaper.setImageUrl(reader.nextString());
+                    break;
+                case "width":
+                    wallpaper.setWidth(reader.nextInt());
+                    break;
+                case "height":
+                    wallpaper.setHeight(reader.nextInt());
+                    break;
+                case "file_name":
+                    wallpaper.setFileName(reader.nextString());
+                    break;
+                case "created_at":
+                    wallpaper.setCreatedAt(reader.nextString());
+                    break;
+                case "tags":
+                    wallpaper.setTags(readStrings(reader));
+                    break;
+                case "color_palette":
+                    wallpaper.setColorPalette(readStrings(reader));
+                    break;
+                case "users":
+                    wallpaper.setUsername(readUsername(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return wallpaper;
+    }
+
+    private static List<String> readStrings(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return values;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                values.add(reader.nextString());
+            }
+        }
+        reader.endArray();
+        return values;
+    }
+
+    private static String readUsername(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String username = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("username".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                username = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return username;
+    }
+}
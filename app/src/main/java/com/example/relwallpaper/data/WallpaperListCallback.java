@@ -0,0 +1,44 @@
+package com.example.relwallpaper.data;
+
+import androidx.annotation.NonNull;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.io.IOException;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+public abstract class WallpaperListCallback implements Callback {
+
+    public abstract void onWallpapers(List<Wallpaper> wallpapers);
+
+    public abstract void onError(String message);
+
+    @Override
+    public void onFailure(@NonNull Call call, @NonNull IOException e) {
+        if (!call.isCanceled()) {
+            onError(e.getMessage());
+        }
+    }
+
+    @Override
+    public void onResponse(@NonNull Call call, @NonNull Response response) {
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful()) {
+                onError("HTTP " + response.code());
+                return;
+            }
+            List<Wallpaper> wallpapers;
+            try {
+                wallpapers = WallpaperDecoder.decodeList(body.charStream());
+            } catch (IOException | RuntimeException e) {
+                if (!call.isCanceled()) {
+                    onError(e.getMessage());
+                }
+                return;
+            }
+            onWallpapers(wallpapers);
+        }
+    }
+}
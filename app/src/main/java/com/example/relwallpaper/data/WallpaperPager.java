@@ -0,0 +1,126 @@
+package com.example.relwallpaper.data;
+
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.util.List;
+import okhttp3.Call;
+
+public class WallpaperPager {
+
+    public interface QueryFactory {
+        SupabaseQuery create();
+    }
+
+    public interface PageCallback {
+        void onPage(List<Wallpaper> wallpapers, boolean firstPage);
+
+        void onError(String message);
+    }
+
+    private final SupabaseGateway gateway;
+    private final QueryFactory queryFactory;
+    private final int pageSize;
+
+    private WallpaperStore store;
+    private boolean newestWindow;
+
+    private String cursorCreatedAt;
+    private String cursorId;
+    private volatile boolean loading = false;
+    private volatile boolean hasMore = true;
+    private int generation = 0;
+    private Call inFlight;
+
+    public WallpaperPager(SupabaseGateway gateway, int pageSize, QueryFactory queryFactory) {
+        this.gateway = gateway;
+        this.pageSize = pageSize;
+        this.queryFactory = queryFactory;
+    }
+
+    public WallpaperPager saveTo(WallpaperStore store, boolean newestWindow) {
+        this.store = store;
+        this.newestWindow = newestWindow;
+        return this;
+    }
+
+    public synchronized WallpaperPager resumeAfter(String createdAt, String id) {
+        cursorCreatedAt = createdAt;
+        cursorId = id;
+        return this;
+    }
+
+    public synchronized void reset() {
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+        cursorCreatedAt = null;
+        cursorId = null;
+        loading = false;
+        hasMore = true;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public synchronized boolean isFirstPage() {
+        return cursorId == null;
+    }
+
+    public synchronized void loadNext(PageCallback callback) {
+        if (loading || !hasMore) return;
+
+        loading = true;
+        boolean firstPage = cursorId == null;
+        int requestGeneration = generation;
+
+        SupabaseQuery query = queryFactory.create();
+        if (!firstPage) {
+            String createdAt = SupabaseQuery.quote(cursorCreatedAt);
+            query.or("created_at.lt." + createdAt,
+                    "and(created_at.eq." + createdAt + ",id.lt." + SupabaseQuery.quote(cursorId) + ")");
+        }
+        query.order("created_at", false)
+                .order("id", false)
+                .limit(pageSize);
+
+        inFlight = gateway.select(query, new WallpaperListCallback() {
+            @Override
+            public void onWallpapers(List<Wallpaper> wallpapers) {
+                if (store != null) {
+                    store.save(wallpapers, firstPage && newestWindow);
+                }
+                if (!finish(requestGeneration, wallpapers)) return;
+                callback.onPage(wallpapers, firstPage);
+            }
+
+            @Override
+            public void onError(String message) {
+                if (!finish(requestGeneration, null)) return;
+                callback.onError(message);
+            }
+        });
+    }
+
+    private synchronized boolean finish(int requestGeneration, List<Wallpaper> wallpapers) {
+        if (requestGeneration != generation) {
+            return false;
+        }
+        inFlight = null;
+        loading = false;
+        if (wallpapers != null) {
+            hasMore = wallpapers.size() >= pageSize;
+            if (!wallpapers.isEmpty()) {
+                Wallpaper last = wallpapers.get(wallpapers.size() - 1);
+                cursorCreatedAt = last.getCreatedAt();
+                cursorId = last.getId();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.relwallpaper.data;
+
+import android.content.Context;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.util.List;
+
+public class WallpaperRepository {
+
+    private static WallpaperRepository instance;
+
+    private final SupabaseGateway gateway;
+    private final WallpaperStore store;
+
+    private WallpaperRepository(Context context) {
+        this.gateway = SupabaseGateway.getInstance(context);
+        this.store = WallpaperStore.getInstance(context);
+    }
+
+    public static synchronized WallpaperRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new WallpaperRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public WallpaperPager newFeedPager(int pageSize) {
+        return new WallpaperPager(gateway, pageSize, () -> gateway.from("wallpapers")
+                .select(WallpaperColumns.CARD))
+                .saveTo(store, true);
+    }
+
+    public void loadCachedFeed(int limit, WallpaperStore.ResultCallback<List<Wallpaper>> callback) {
+        store.recent(limit, callback);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.relwallpaper.data;
+
+import androidx.annotation.NonNull;
+import java.io.IOException;
+import java.util.Collections;
+import org.json.JSONException;
+import org.json.JSONObject;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+public class WallpaperSearch {
+
+    public static final String FUNCTION = "search_wallpapers";
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final SupabaseGateway gateway;
+    private final String columns;
+    private volatile boolean rpcAvailable = true;
+
+    public WallpaperSearch(SupabaseGateway gateway, String columns) {
+        this.gateway = gateway;
+        this.columns = columns;
+    }
+
+    public void search(String query, int limit, int offset, Callback callback) {
+        String term = sanitize(query);
+        if (!rpcAvailable) {
+            searchWithFilter(term, limit, offset, callback);
+            return;
+        }
+
+        JSONObject args = new JSONObject();
+        try {
+            args.put("search_query", term);
+            args.put("page_limit", limit);
+            args.put("page_offset", offset);
+        } catch (JSONException e) {
+            searchWithFilter(term, limit, offset, callback);
+            return;
+        }
+
+        gateway.rpc(FUNCTION, args, columns, new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                callback.onFailure(call, e);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+                if (response.code() == 404) {
+                    response.close();
+                    rpcAvailable = false;
+                    searchWithFilter(term, limit, offset, callback);
+                    return;
+                }
+                callback.onResponse(call, response);
+            }
+        });
+    }
+
+    // PostgREST cannot OR across the embedded users row, so unlike the RPC this
+    // fallback does not match usernames.
+    private void searchWithFilter(String term, int limit, int offset, Callback callback) {
+        String pattern = SupabaseQuery.quote("*" + term + "*");
+        SupabaseQuery query = gateway.from("wallpapers")
+                .select(columns)
+                .or("name.ilike." + pattern,
+                        "description.ilike." + pattern,
+                        "tags.cs." + SupabaseQuery.arrayLiteral(
+                                Collections.singletonList(WallpaperTags.normalize(term))))
+                .order("created_at", false)
+                .order("id", false)
+                .limit(limit)
+                .offset(offset);
+        gateway.select(query, callback);
+    }
+
+    static String sanitize(String query) {
+        String term = query == null ? "" : query.trim().replaceAll("\\s+", " ");
+        term = term.replace("*", "").replace("%", "");
+        return term.length() > MAX_QUERY_LENGTH ? term.substring(0, MAX_QUERY_LENGTH) : term;
+    }
+}
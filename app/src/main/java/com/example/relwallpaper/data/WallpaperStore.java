@@ -0,0 +1,308 @@
+package com.example.relwallpaper.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class WallpaperStore extends SQLiteOpenHelper {
+
+    public interface ResultCallback<T> {
+        void onResult(T result);
+    }
+
+    public static final class Footprint {
+        public final String id;
+        public final long syncedAt;
+        public final long bytes;
+
+        Footprint(String id, long syncedAt, long bytes) {
+            this.id = id;
+            this.syncedAt = syncedAt;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final String TAG = "WallpaperStore";
+    private static final String DATABASE_NAME = "wallpapers.db";
+    private static final int DATABASE_VERSION = 2;
+    private static final String SEPARATOR = "\u001F";
+
+    private static final String TABLE_WALLPAPERS = "wallpapers";
+    private static final String TABLE_TAGS = "wallpaper_tags";
+    private static final String COLUMNS = "w.id, w.name, w.description, w.image_url, w.file_name, "
+            + "w.created_at, w.tags, w.color_palette, w.username, w.width, w.height";
+
+    private static WallpaperStore instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private WallpaperStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized WallpaperStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new WallpaperStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_WALLPAPERS + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "name TEXT, "
+                + "description TEXT, "
+                + "image_url TEXT, "
+                + "file_name TEXT, "
+                + "created_at TEXT NOT NULL, "
+                + "tags TEXT, "
+                + "color_palette TEXT, "
+                + "username TEXT, "
+                + "width INTEGER, "
+                + "height INTEGER, "
+                + "synced_at INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_wallpapers_created_at ON " + TABLE_WALLPAPERS + " (created_at DESC, id DESC)");
+        db.execSQL("CREATE TABLE " + TABLE_TAGS + " ("
+                + "wallpaper_id TEXT NOT NULL REFERENCES " + TABLE_WALLPAPERS + "(id) ON DELETE CASCADE, "
+                + "tag TEXT NOT NULL COLLATE NOCASE, "
+                + "PRIMARY KEY (wallpaper_id, tag))");
+        db.execSQL("CREATE INDEX idx_wallpaper_tags_tag ON " + TABLE_TAGS + " (tag)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TAGS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_WALLPAPERS);
+        onCreate(db);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.setForeignKeyConstraintsEnabled(true);
+    }
+
+    public void recent(int limit, ResultCallback<List<Wallpaper>> callback) {
+        executor.execute(() -> callback.onResult(query(
+                "SELECT " + COLUMNS + " FROM " + TABLE_WALLPAPERS + " w "
+                        + "ORDER BY w.created_at DESC, w.id DESC LIMIT ?",
+                String.valueOf(limit))));
+    }
+
+    public void byTag(String tag, int limit, ResultCallback<List<Wallpaper>> callback) {
+        executor.execute(() -> callback.onResult(query(
+                "SELECT " + COLUMNS + " FROM " + TABLE_WALLPAPERS + " w "
+                        + "JOIN " + TABLE_TAGS + " t ON t.wallpaper_id = w.id "
+                        + "WHERE t.tag = ? "
+                        + "ORDER BY w.created_at DESC, w.id DESC LIMIT ?",
+                WallpaperTags.normalize(tag), String.valueOf(limit))));
+    }
+
+    public void search(String term, int limit, ResultCallback<List<Wallpaper>> callback) {
+        String pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        executor.execute(() -> callback.onResult(query(
+                "SELECT " + COLUMNS + " FROM " + TABLE_WALLPAPERS + " w "
+                        + "WHERE w.name LIKE ?1 ESCAPE '\\' "
+                        + "OR w.description LIKE ?1 ESCAPE '\\' "
+                        + "OR w.username LIKE ?1 ESCAPE '\\' "
+                        + "OR EXISTS (SELECT 1 FROM " + TABLE_TAGS + " t WHERE t.wallpaper_id = w.id AND t.tag = ?2) "
+                        + "ORDER BY w.created_at DESC, w.id DESC LIMIT ?3",
+                pattern, WallpaperTags.normalize(term), String.valueOf(limit))));
+    }
+
+    public void save(List<Wallpaper> wallpapers) {
+        save(wallpapers, false);
+    }
+
+    public void save(List<Wallpaper> wallpapers, boolean newestWindow) {
+        if (wallpapers.isEmpty() && !newestWindow) return;
+        List<Wallpaper> snapshot = new ArrayList<>(wallpapers);
+        executor.execute(() -> {
+            try {
+                write(snapshot, newestWindow);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to save wallpapers", e);
+            }
+        });
+    }
+
+    public File[] getDatabaseFiles(Context context) {
+        File database = context.getDatabasePath(getDatabaseName());
+        return new File[]{
+                database,
+                new File(database.getPath() + "-journal"),
+                new File(database.getPath() + "-wal"),
+                new File(database.getPath() + "-shm")
+        };
+    }
+
+    public void clear() {
+        executor.execute(() -> {
+            try {
+                SQLiteDatabase db = getWritableDatabase();
+                db.delete(TABLE_WALLPAPERS, null, null);
+                db.execSQL("VACUUM");
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to clear wallpapers", e);
+            }
+        });
+    }
+
+    public List<Footprint> footprints() {
+        List<Footprint> footprints = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT w.id, w.synced_at, length(w.id) + ifnull(length(w.name), 0) + ifnull(length(w.description), 0) "
+                        + "+ ifnull(length(w.image_url), 0) + ifnull(length(w.file_name), 0) + length(w.created_at) "
+                        + "+ ifnull(length(w.tags), 0) * 2 + ifnull(length(w.color_palette), 0) + ifnull(length(w.username), 0) "
+                        + "FROM " + TABLE_WALLPAPERS + " w", null)) {
+            while (cursor.moveToNext()) {
+                footprints.add(new Footprint(cursor.getString(0), cursor.getLong(1), cursor.getLong(2)));
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to measure wallpapers", e);
+        }
+        return footprints;
+    }
+
+    public void evict(List<String> ids) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String id : ids) {
+                db.delete(TABLE_WALLPAPERS, "id = ?", new String[]{id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        db.execSQL("VACUUM");
+    }
+
+    public void delete(String id) {
+        executor.execute(() -> getWritableDatabase().delete(TABLE_WALLPAPERS, "id = ?", new String[]{id}));
+    }
+
+    private void write(List<Wallpaper> wallpapers, boolean newestWindow) {
+        SQLiteDatabase db = getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            if (newestWindow) {
+                pruneNewestWindow(db, wallpapers);
+            }
+            for (Wallpaper wallpaper : wallpapers) {
+                if (wallpaper.getId() == null || wallpaper.getCreatedAt() == null) continue;
+
+                ContentValues values = new ContentValues();
+                values.put("id", wallpaper.getId());
+                values.put("created_at", wallpaper.getCreatedAt());
+                values.put("synced_at", now);
+                putIfPresent(values, "name", wallpaper.getName());
+                putIfPresent(values, "description", wallpaper.getDescription());
+                putIfPresent(values, "image_url", wallpaper.getImageUrl());
+                putIfPresent(values, "file_name", wallpaper.getFileName());
+                putIfPresent(values, "username", wallpaper.getUsername());
+                if (wallpaper.getWidth() > 0 && wallpaper.getHeight() > 0) {
+                    values.put("width", wallpaper.getWidth());
+                    values.put("height", wallpaper.getHeight());
+                }
+                if (wallpaper.getColorPalette() != null) {
+                    values.put("color_palette", join(wallpaper.getColorPalette()));
+                }
+                if (wallpaper.getTags() != null) {
+                    values.put("tags", join(wallpaper.getTags()));
+                }
+
+                int updated = db.update(TABLE_WALLPAPERS, values, "id = ?", new String[]{wallpaper.getId()});
+                if (updated == 0) {
+                    db.insert(TABLE_WALLPAPERS, null, values);
+                }
+
+                if (wallpaper.getTags() != null) {
+                    db.delete(TABLE_TAGS, "wallpaper_id = ?", new String[]{wallpaper.getId()});
+                    for (String tag : wallpaper.getTags()) {
+                        ContentValues tagValues = new ContentValues();
+                        tagValues.put("wallpaper_id", wallpaper.getId());
+                        tagValues.put("tag", WallpaperTags.normalize(tag));
+                        db.insertWithOnConflict(TABLE_TAGS, null, tagValues, SQLiteDatabase.CONFLICT_IGNORE);
+                    }
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void pruneNewestWindow(SQLiteDatabase db, List<Wallpaper> newest) {
+        if (newest.isEmpty()) {
+            db.delete(TABLE_WALLPAPERS, null, null);
+            return;
+        }
+        Wallpaper oldest = newest.get(newest.size() - 1);
+        List<String> args = new ArrayList<>();
+        args.add(oldest.getCreatedAt());
+        args.add(oldest.getCreatedAt());
+        args.add(oldest.getId());
+        StringBuilder keep = new StringBuilder();
+        for (Wallpaper wallpaper : newest) {
+            keep.append(keep.length() == 0 ? "?" : ",?");
+            args.add(wallpaper.getId());
+        }
+        db.delete(TABLE_WALLPAPERS,
+                "(created_at > ? OR (created_at = ? AND id >= ?)) AND id NOT IN (" + keep + ")",
+                args.toArray(new String[0]));
+    }
+
+    private List<Wallpaper> query(String sql, String... args) {
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(sql, args)) {
+            while (cursor.moveToNext()) {
+                Wallpaper wallpaper = new Wallpaper();
+                wallpaper.setId(cursor.getString(0));
+                wallpaper.setName(cursor.getString(1));
+                wallpaper.setDescription(cursor.getString(2));
+                wallpaper.setImageUrl(cursor.getString(3));
+                wallpaper.setFileName(cursor.getString(4));
+                wallpaper.setCreatedAt(cursor.getString(5));
+                wallpaper.setTags(split(cursor.getString(6)));
+                wallpaper.setColorPalette(split(cursor.getString(7)));
+                wallpaper.setUsername(cursor.getString(8));
+                wallpaper.setWidth(cursor.getInt(9));
+                wallpaper.setHeight(cursor.getInt(10));
+                wallpapers.add(wallpaper);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read wallpapers", e);
+        }
+        return wallpapers;
+    }
+
+    private static void putIfPresent(ContentValues values, String column, String value) {
+        if (value != null) {
+            values.put(column, value);
+        }
+    }
+
+    private static String join(List<String> values) {
+        return String.join(SEPARATOR, values);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) return null;
+        if (value.isEmpty()) return Collections.emptyList();
+        return new ArrayList<>(Arrays.asList(value.split(SEPARATOR)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.relwallpaper.data;
+
+import java.util.Collections;
+
+public final class WallpaperTags {
+
+    public static final String[] PREDEFINED = {
+            "For Fun", "Doodle", "Nature", "Shape", "Retro",
+            "Branding", "Motif", "Blob", "Gradients", "Elements",
+            "Art & Culture", "Blurred"
+    };
+
+    private WallpaperTags() {
+    }
+
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String trimmed = tag.trim().replaceAll("\\s+", " ");
+        for (String predefined : PREDEFINED) {
+            if (predefined.equalsIgnoreCase(trimmed)) {
+                return predefined;
+            }
+        }
+        return trimmed;
+    }
+
+    public static SupabaseQuery applyFilter(SupabaseQuery query, String column, String tag) {
+        return query.contains(column, Collections.singletonList(normalize(tag)));
+    }
+}
@@ -1,20 +1,76 @@
 package com.example.relwallpaper.ui;
 
 import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.util.Log;
+import com.example.relwallpaper.ui.utils.CollectionDownloads;
 import com.example.relwallpaper.ui.utils.ImageCacheManager;
+import com.example.relwallpaper.ui.utils.WallpaperDownloads;
 import com.google.android.material.color.DynamicColors;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 
 public class MyApplication extends Application {
 
+    private static final String TAG = "MyApplication";
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 50L * 1024 * 1024;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS = 32;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+
+    private OkHttpClient httpClient;
+
     @Override
     public void onCreate() {
         super.onCreate();
         DynamicColors.applyToActivitiesIfAvailable(this);
+        httpClient = buildHttpClient();
         ImageCacheManager.getInstance(this);
-        setupGlobalImageLoading();
+        WallpaperDownloads.getInstance(this).resume();
+        CollectionDownloads.getInstance(this).resume();
+    }
+
+    public static OkHttpClient getHttpClient(Context context) {
+        return ((MyApplication) context.getApplicationContext()).httpClient;
     }
 
-    private void setupGlobalImageLoading() {
+    private OkHttpClient buildHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .cache(new Cache(new File(getCacheDir(), HTTP_CACHE_DIR),
+                        Math.min(HTTP_CACHE_SIZE, ImageCacheManager.httpShareOf(ImageCacheManager.readCacheBudget(this)))))
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .writeTimeout(30, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            ImageCacheManager.getInstance(this).trimToBudget();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND && httpClient != null) {
+            httpClient.connectionPool().evictAll();
+        }
     }
 
     @Override
@@ -27,5 +83,17 @@ public class MyApplication extends Application {
     public void onTerminate() {
         super.onTerminate();
         ImageCacheManager.getInstance(this).cleanup();
+        if (httpClient != null) {
+            httpClient.dispatcher().cancelAll();
+            httpClient.connectionPool().evictAll();
+            Cache cache = httpClient.cache();
+            if (cache != null) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to close HTTP cache", e);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
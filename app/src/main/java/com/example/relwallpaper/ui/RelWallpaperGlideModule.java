@@ -0,0 +1,90 @@
+package com.example.relwallpaper.ui;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.relwallpaper.BuildConfig;
+import com.example.relwallpaper.R;
+import com.example.relwallpaper.ui.utils.ImageCacheManager;
+import com.example.relwallpaper.ui.utils.ImageDiskCache;
+import com.example.relwallpaper.ui.utils.Thumbnail;
+import com.example.relwallpaper.ui.utils.ThumbnailUrlLoader;
+import java.io.InputStream;
+import okhttp3.OkHttpClient;
+
+@GlideModule
+public class RelWallpaperGlideModule extends AppGlideModule {
+
+    private static final String TAG = "RelWallpaperGlide";
+    public static final String DISK_CACHE_DIR = "image_cache";
+    private static final long MB = 1024L * 1024;
+    private static final long LOW_RAM_DISK_CACHE_SIZE = 64 * MB;
+    private static final long DEFAULT_DISK_CACHE_SIZE = 160 * MB;
+    private static final long LARGE_DISK_CACHE_SIZE = 320 * MB;
+    private static final int LARGE_MEMORY_CLASS_MB = 256;
+
+    public static final RequestOptions FULL_QUALITY = new RequestOptions()
+            .format(DecodeFormat.PREFER_ARGB_8888)
+            .lock();
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClass = activityManager.getMemoryClass();
+        boolean lowRam = activityManager.isLowRamDevice();
+
+        MemorySizeCalculator defaults = new MemorySizeCalculator.Builder(context).build();
+        long heapBytes = memoryClass * MB;
+        long memoryCacheSize = Math.min(defaults.getMemoryCacheSize(), heapBytes / (lowRam ? 12 : 6));
+        long bitmapPoolSize = Math.min(defaults.getBitmapPoolSize(), heapBytes / (lowRam ? 16 : 8));
+        long diskCacheSize = lowRam ? LOW_RAM_DISK_CACHE_SIZE
+                : memoryClass >= LARGE_MEMORY_CLASS_MB ? LARGE_DISK_CACHE_SIZE : DEFAULT_DISK_CACHE_SIZE;
+        diskCacheSize = Math.min(diskCacheSize, ImageCacheManager.imageShareOf(ImageCacheManager.readCacheBudget(context)));
+
+        ImageDiskCache diskCache = ImageDiskCache.getInstance(context);
+        diskCache.setMaxSize(diskCacheSize);
+
+        builder.setMemoryCache(new LruResourceCache(memoryCacheSize))
+                .setBitmapPool(new LruBitmapPool(bitmapPoolSize))
+                .setDiskCache(() -> diskCache)
+                .setDefaultRequestOptions(new RequestOptions()
+                        .format(DecodeFormat.PREFER_RGB_565)
+                        .diskCacheStrategy(DiskCacheStrategy.ALL)
+                        .error(R.drawable.error_image))
+                .setLogLevel(Log.ERROR);
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "memoryClass=" + memoryClass + "MB lowRam=" + lowRam
+                    + " memoryCache=" + memoryCacheSize / MB + "MB bitmapPool=" + bitmapPoolSize / MB
+                    + "MB diskCache=" + diskCacheSize / MB + "MB");
+        }
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        OkHttpClient imageClient = MyApplication.getHttpClient(context).newBuilder()
+                .cache(null)
+                .build();
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(imageClient));
+        registry.prepend(Thumbnail.class, InputStream.class, new ThumbnailUrlLoader.Factory());
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -15,9 +15,10 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.MainActivity;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.SupabaseQuery;
 import com.google.android.gms.auth.api.signin.*;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
@@ -38,18 +39,16 @@ import okhttp3.*;
 public class LoginActivity extends AppCompatActivity {
 
     private static final int RC_SIGN_IN = 1001;
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_AUTH_URL = SUPABASE_URL + "/auth/v1/token?grant_type=id_token";
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
 
     private MaterialButton googleSignInButton;
     private GoogleSignInClient googleSignInClient;
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private SupabaseGateway gateway;
     private AlertDialog loadingDialog;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        gateway = SupabaseGateway.getInstance(this);
 
         if (isUserLoggedIn()) {
             navigateToMainActivity();
@@ -149,24 +148,7 @@ public class LoginActivity extends AppCompatActivity {
 
     private void loginToSupabase(String idToken) {
         try {
-            JSONObject json = new JSONObject();
-            json.put("provider", "google");
-            json.put("id_token", idToken);
-
-            RequestBody body = RequestBody.create(
-                    json.toString(),
-                    MediaType.get("application/json")
-            );
-
-            Request request = new Request.Builder()
-                    .url(SUPABASE_AUTH_URL)
-                    .post(body)
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("apikey", SUPABASE_API_KEY)
-                    .addHeader("Authorization", "Bearer " + SUPABASE_API_KEY)
-                    .build();
-
-            httpClient.newCall(request).enqueue(new Callback() {
+            gateway.signInWithIdToken("google", idToken, new Callback() {
                 @Override
                 public void onFailure(@NonNull Call call, @NonNull IOException e) {
                     showError("Network error: " + e.getMessage());
@@ -237,7 +219,7 @@ public class LoginActivity extends AppCompatActivity {
                 }
             }
 
-            checkAndCreateUser(userId, email, name, accessToken);
+            checkAndCreateUser(userId, email, name);
 
         } catch (Exception e) {
             runOnUiThread(() -> {
@@ -247,17 +229,10 @@ public class LoginActivity extends AppCompatActivity {
         }
     }
 
-    private void checkAndCreateUser(String userId, String email, String name, String accessToken) {
-        String checkUserUrl = BuildConfig.SUPABASE_URL + "/rest/v1/users?id=eq." + userId;
+    private void checkAndCreateUser(String userId, String email, String name) {
+        SupabaseQuery query = gateway.from("users").eq("id", userId);
 
-        Request checkRequest = new Request.Builder()
-                .url(checkUserUrl)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", BuildConfig.SUPABASE_API_KEY)
-                .build();
-
-        httpClient.newCall(checkRequest).enqueue(new Callback() {
+        gateway.select(query, new Callback() {
             @Override
             public void onFailure(@NonNull Call call, @NonNull IOException e) {
                 runOnUiThread(() -> {
@@ -280,7 +255,7 @@ public class LoginActivity extends AppCompatActivity {
                     }
 
                     if (!userExists) {
-                        createUser(userId, email, name, accessToken);
+                        createUser(userId, email, name);
                     } else {
                         runOnUiThread(() -> {
                             dismissLoading();
@@ -288,13 +263,13 @@ public class LoginActivity extends AppCompatActivity {
                         });
                     }
                 } catch (Exception e) {
-                    createUser(userId, email, name, accessToken);
+                    createUser(userId, email, name);
                 }
             }
         });
     }
 
-    private void createUser(String userId, String email, String name, String accessToken) {
+    private void createUser(String userId, String email, String name) {
         try {
             SimpleDateFormat iso8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
             iso8601.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -306,22 +281,7 @@ public class LoginActivity extends AppCompatActivity {
             userData.put("name", name);
             userData.put("created_at", createdAt);
 
-            String usersUrl = BuildConfig.SUPABASE_URL + "/rest/v1/users";
-            RequestBody requestBody = RequestBody.create(
-                    userData.toString(),
-                    MediaType.parse("application/json")
-            );
-
-            Request request = new Request.Builder()
-                    .url(usersUrl)
-                    .post(requestBody)
-                    .addHeader("Authorization", "Bearer " + accessToken)
-                    .addHeader("apikey", BuildConfig.SUPABASE_API_KEY)
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("Prefer", "return=minimal")
-                    .build();
-
-            httpClient.newCall(request).enqueue(new Callback() {
+            gateway.insert("users", userData, new Callback() {
                 @Override
                 public void onFailure(@NonNull Call call, @NonNull IOException e) {
                     runOnUiThread(() -> {
@@ -376,7 +336,6 @@ public class LoginActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         dismissLoading();
-        httpClient.dispatcher().executorService().shutdown();
     }
 
     public static void logout(AppCompatActivity activity) {
@@ -14,8 +14,9 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.SupabaseQuery;
 import com.example.relwallpaper.databinding.FragmentCollectionBinding;
 import com.example.relwallpaper.ui.pages.TaggedWallpapersActivity;
 
@@ -25,12 +26,9 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
 import okhttp3.Response;
 
 import com.example.relwallpaper.ui.collection.CollectionAdapter;
@@ -39,12 +37,10 @@ import com.example.relwallpaper.ui.collection.CollectionItem;
 public class CollectionFragment extends Fragment implements CollectionAdapter.OnCollectionClickListener {
 
     private static final String TAG = "CollectionFragment";
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
 
     private FragmentCollectionBinding binding;
     private CollectionAdapter adapter;
-    private OkHttpClient httpClient;
+    private SupabaseGateway gateway;
     private String accessToken;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -58,10 +54,7 @@ public class CollectionFragment extends Fragment implements CollectionAdapter.On
         accessToken = getActivity().getSharedPreferences("auth", Context.MODE_PRIVATE)
                 .getString("supabase_access_token", null);
 
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
+        gateway = SupabaseGateway.getInstance(requireContext());
 
         setupRecyclerView();
         setupPredefinedTags();
@@ -102,16 +95,9 @@ public class CollectionFragment extends Fragment implements CollectionAdapter.On
             return;
         }
 
-        String url = SUPABASE_URL + "/rest/v1/wallpapers?select=tags";
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .addHeader("Content-Type", "application/json")
-                .build();
+        SupabaseQuery query = gateway.from("wallpapers").select("tags");
 
-        httpClient.newCall(request).enqueue(new Callback() {
+        gateway.select(query, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 Log.e(TAG, "Failed to fetch wallpaper counts: " + e.getMessage(), e);
@@ -210,9 +196,6 @@ public class CollectionFragment extends Fragment implements CollectionAdapter.On
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-        }
     }
 
     @Override
@@ -0,0 +1,43 @@
+package com.example.relwallpaper.ui.home;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import com.google.android.material.card.MaterialCardView;
+
+public class AspectRatioCardView extends MaterialCardView {
+
+    private float aspectRatio;
+
+    public AspectRatioCardView(Context context) {
+        super(context);
+    }
+
+    public AspectRatioCardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public AspectRatioCardView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    public void setAspectRatio(float aspectRatio) {
+        if (this.aspectRatio == aspectRatio) return;
+        this.aspectRatio = aspectRatio;
+        requestLayout();
+    }
+
+    public float getAspectRatio() {
+        return aspectRatio;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = View.MeasureSpec.getSize(widthMeasureSpec);
+        if (aspectRatio > 0 && width > 0) {
+            int height = Math.round(width * aspectRatio);
+            heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+        }
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+}
@@ -1,93 +1,60 @@
 package com.example.relwallpaper.ui.home;
 
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
+import androidx.core.view.OneShotPreDrawListener;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
-import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+import com.bumptech.glide.RequestBuilder;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.databinding.FragmentHomeBinding;
 import com.example.relwallpaper.ui.auth.LoginActivity;
 import com.example.relwallpaper.ui.home.adapter.CarouselAdapter;
+import com.example.relwallpaper.ui.home.adapter.HomeHeaderAdapter;
 import com.example.relwallpaper.ui.home.adapter.WallpaperAdapter;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
 import com.example.relwallpaper.ui.pages.WallpaperDetailActivity;
+import com.example.relwallpaper.ui.utils.FirstPaintTracker;
+import com.example.relwallpaper.ui.utils.GridPreloader;
 import com.example.relwallpaper.ui.utils.ImageCacheManager;
-import org.json.JSONArray;
-import org.json.JSONObject;
-import java.io.IOException;
-import java.util.ArrayList;
+import com.example.relwallpaper.ui.utils.PreloadScheduler;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import okhttp3.*;
 
 public class HomeFragment extends Fragment implements WallpaperAdapter.OnWallpaperClickListener, CarouselAdapter.OnCarouselItemClickListener {
 
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
-
-    private static final int PAGE_SIZE = 20;
-    private static final int PRELOAD_THRESHOLD = 5;
+    private static final int LOAD_MORE_THRESHOLD = 6;
+    private static final int PLACEHOLDER_COUNT = 6;
+    private static final int PRELOAD_AHEAD = 8;
+    private static final int HEADER_COUNT = 1;
 
     private FragmentHomeBinding binding;
+    private HomeViewModel homeViewModel;
     private WallpaperAdapter adapter;
     private CarouselAdapter carouselAdapter;
-    private List<Wallpaper> wallpapers;
-    private List<Wallpaper> carouselWallpapers;
-    private OkHttpClient httpClient;
-    private String accessToken;
-
-    private RecyclerView recyclerView;
-    private RecyclerView carouselRecyclerView;
-    private SwipeRefreshLayout swipeRefreshLayout;
-    private LinearLayout initialLoadingLayout;
-
-    private boolean isLoading = false;
-    private boolean hasMoreData = true;
-    private int currentPage = 0;
-    private int totalLoadedItems = 0;
-
-    private boolean isDataLoaded = false;
-    private boolean isViewCreated = false;
+    private ConcatAdapter concatAdapter;
+    private GridPreloader preloader;
+    private PreloadScheduler.Batch preloadBatch;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        if (binding == null) {
-            binding = FragmentHomeBinding.inflate(inflater, container, false);
-
-            accessToken = requireActivity().getSharedPreferences("auth", requireContext().MODE_PRIVATE)
-                    .getString("supabase_access_token", null);
+        FirstPaintTracker.start();
+        binding = FragmentHomeBinding.inflate(inflater, container, false);
 
-            if (accessToken == null) {
-                startActivity(new Intent(getContext(), LoginActivity.class));
-                requireActivity().finish();
-                return binding.getRoot();
-            }
+        String accessToken = requireActivity().getSharedPreferences("auth", requireContext().MODE_PRIVATE)
+                .getString("supabase_access_token", null);
 
-            initializeComponents();
-            setupRecyclerViews();
-        }
-
-        if (wallpapers.isEmpty()) {
-            binding.initialLoadingLayout.setVisibility(View.VISIBLE);
-            binding.mainContentScroll.setVisibility(View.GONE);
-
-            binding.getRoot().postDelayed(() -> loadInitialData(), 0);
-        } else {
-            binding.initialLoadingLayout.setVisibility(View.GONE);
-            binding.mainContentScroll.setVisibility(View.VISIBLE);
-            adapter.notifyDataSetChanged();
-            carouselAdapter.notifyDataSetChanged();
+        if (accessToken == null) {
+            startActivity(new Intent(getContext(), LoginActivity.class));
+            requireActivity().finish();
         }
 
         return binding.getRoot();
@@ -97,29 +64,21 @@ public class HomeFragment extends Fragment implements WallpaperAdapter.OnWallpap
     public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        HomeViewModel homeViewModel = new ViewModelProvider(this).get(HomeViewModel.class);
-
-        observeViewModel(homeViewModel);
-    }
+        if (requireActivity().isFinishing()) return;
 
-    private void initializeComponents() {
-        recyclerView = binding.wallpaperRecyclerView;
-        carouselRecyclerView = binding.carouselRecyclerView;
-        swipeRefreshLayout = binding.swipeRefreshLayout;
-        initialLoadingLayout = binding.initialLoadingLayout;
+        homeViewModel = new ViewModelProvider(this).get(HomeViewModel.class);
 
-        wallpapers = new ArrayList<>();
-        carouselWallpapers = new ArrayList<>();
+        setupSwipeRefresh();
+        setupRecyclerViews();
+        setupLoadMore();
+        observeViewModel();
 
-        Cache cache = new Cache(requireContext().getCacheDir(), 50 * 1024 * 1024);
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .cache(cache)
-                .build();
+        homeViewModel.loadIfNeeded();
+    }
 
-        swipeRefreshLayout.setOnRefreshListener(this::refreshData);
-        swipeRefreshLayout.setColorSchemeResources(
+    private void setupSwipeRefresh() {
+        binding.swipeRefreshLayout.setOnRefreshListener(() -> homeViewModel.refresh());
+        binding.swipeRefreshLayout.setColorSchemeResources(
                 com.google.android.material.R.color.material_dynamic_primary10,
                 com.google.android.material.R.color.material_dynamic_primary20,
                 com.google.android.material.R.color.material_dynamic_primary30
@@ -130,233 +89,125 @@ public class HomeFragment extends Fragment implements WallpaperAdapter.OnWallpap
         StaggeredGridLayoutManager layoutManager = new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL);
         layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_MOVE_ITEMS_BETWEEN_SPANS);
 
-        recyclerView.setLayoutManager(layoutManager);
-        adapter = new WallpaperAdapter(wallpapers, this);
-        recyclerView.setAdapter(adapter);
-        recyclerView.addItemDecoration(new WallpaperItemDecoration(16));
+        carouselAdapter = new CarouselAdapter(this);
+        adapter = new WallpaperAdapter(this);
+        concatAdapter = new ConcatAdapter(new HomeHeaderAdapter(carouselAdapter), adapter);
+
+        binding.wallpaperRecyclerView.setLayoutManager(layoutManager);
+        binding.wallpaperRecyclerView.setAdapter(concatAdapter);
+        binding.wallpaperRecyclerView.addItemDecoration(new WallpaperItemDecoration(16, HEADER_COUNT));
+
+        preloader = new GridPreloader(requireContext(), adapter, HEADER_COUNT, PRELOAD_AHEAD);
+        preloader.attach(binding.wallpaperRecyclerView);
+        preloadBatch = ImageCacheManager.getInstance(requireContext()).newBatch();
+    }
 
-        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+    private void setupLoadMore() {
+        binding.wallpaperRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                super.onScrolled(recyclerView, dx, dy);
+                if (dy <= 0) return;
 
-                if (!isLoading && hasMoreData && dy > 0) {
-                    StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
-                    if (layoutManager != null) {
-                        int[] lastVisibleItems = layoutManager.findLastVisibleItemPositions(null);
-                        int lastVisible = getMaxFromArray(lastVisibleItems);
+                StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) return;
 
-                        if (lastVisible >= wallpapers.size() - PRELOAD_THRESHOLD) {
-                            loadMoreWallpapers();
-                        }
-                    }
+                int lastVisible = RecyclerView.NO_POSITION;
+                for (int position : layoutManager.findLastVisibleItemPositions(null)) {
+                    lastVisible = Math.max(lastVisible, position);
+                }
+                if (lastVisible >= concatAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    homeViewModel.loadMore();
                 }
             }
         });
-
-        CarouselAdapter.setupCarousel(carouselRecyclerView);
-        carouselAdapter = new CarouselAdapter(carouselWallpapers, this);
-        carouselRecyclerView.setAdapter(carouselAdapter);
-    }
-
-    private int getMaxFromArray(int[] array) {
-        int max = array[0];
-        for (int i = 1; i < array.length; i++) {
-            if (array[i] > max) {
-                max = array[i];
-            }
-        }
-        return max;
     }
 
-    private void loadInitialData() {
-        resetPaginationState();
-        loadWallpapers(true);
-    }
-
-    private void refreshData() {
-        resetPaginationState();
-        wallpapers.clear();
-        carouselWallpapers.clear();
-        adapter.notifyDataSetChanged();
-        carouselAdapter.notifyDataSetChanged();
-
-        binding.mainContentScroll.setVisibility(View.GONE);
-        loadWallpapers(true);
-    }
-
-    private void resetPaginationState() {
-        currentPage = 0;
-        totalLoadedItems = 0;
-        hasMoreData = true;
-        isLoading = false;
-    }
-
-    private void loadMoreWallpapers() {
-        if (!isLoading && hasMoreData) {
-            currentPage++;
-            loadWallpapers(false);
-        }
-    }
-
-    private void loadWallpapers(boolean isInitialLoad) {
-        if (isLoading) return;
-
-        isLoading = true;
+    private void observeViewModel() {
+        homeViewModel.getWallpapers().observe(getViewLifecycleOwner(), this::showWallpapers);
 
-        if (getActivity() != null) {
-            getActivity().runOnUiThread(() -> setLoadingState(isInitialLoad));
-        }
-
-        int offset = currentPage * PAGE_SIZE;
-        String url = BuildConfig.SUPABASE_URL + "/rest/v1/wallpapers?select=*,users(username)" +
-                "&order=created_at.desc" +
-                "&limit=" + PAGE_SIZE +
-                "&offset=" + offset;
-
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", BuildConfig.SUPABASE_API_KEY)
-                .addHeader("Content-Type", "application/json");
-
-        if (!isInitialLoad) {
-            requestBuilder.addHeader("Cache-Control", "max-age=300");
-        }
+        homeViewModel.getCarouselWallpapers().observe(getViewLifecycleOwner(), carouselList ->
+                carouselAdapter.submitList(carouselList, () -> {
+                    if (binding != null) {
+                        binding.wallpaperRecyclerView.post(this::preloadCarousel);
+                    }
+                }));
 
-        Request request = requestBuilder.build();
+        homeViewModel.getLoadingState().observe(getViewLifecycleOwner(), isLoading ->
+                setLoadingState(isLoading != null && isLoading));
 
-        httpClient.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        isLoading = false;
-                        setLoadingState(false);
-                    });
-                }
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                String responseBody = response.body() != null ? response.body().string() : "null";
-
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        new android.os.Handler().postDelayed(() -> {
-                            isLoading = false;
-
-                            if (response.isSuccessful()) {
-                                parseWallpapers(responseBody, isInitialLoad);
-                                setLoadingState(false);
-                                showMainContent();
-                            } else {
-                                setLoadingState(false);
-                            }
-                        }, 3000);
-                    });
+        homeViewModel.getLoadError().observe(getViewLifecycleOwner(), message -> {
+            if (message == null) return;
+            if (getContext() != null) {
+                if (!adapter.getCurrentList().isEmpty()) {
+                    Toast.makeText(getContext(), "Offline. Showing saved wallpapers.", Toast.LENGTH_SHORT).show();
+                } else {
+                    binding.emptyState.setVisibility(View.VISIBLE);
+                    Toast.makeText(getContext(), "Couldn't load wallpapers. Pull down to retry.", Toast.LENGTH_SHORT).show();
                 }
             }
+            homeViewModel.consumeLoadError();
         });
     }
 
-    private void parseWallpapers(String jsonResponse, boolean isInitialLoad) {
-        try {
-            JSONArray jsonArray = new JSONArray(jsonResponse);
-            int newItemsCount = jsonArray.length();
-
-            if (newItemsCount < PAGE_SIZE) {
-                hasMoreData = false;
+    private void showWallpapers(List<Wallpaper> snapshot) {
+        int previousSize = adapter.getCurrentList().size();
+        adapter.submitList(snapshot, () -> {
+            if (previousSize > 0 && snapshot.size() > previousSize) {
+                preloadNextPage(previousSize, snapshot.size());
             }
+        });
 
-            List<Wallpaper> newWallpapers = new ArrayList<>();
-
-            for (int i = 0; i < newItemsCount; i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-
-                Wallpaper wallpaper = new Wallpaper();
-                wallpaper.setId(jsonObject.optString("id"));
-                wallpaper.setName(jsonObject.optString("name"));
-                wallpaper.setDescription(jsonObject.optString("description"));
-                wallpaper.setImageUrl(jsonObject.optString("image_url"));
-                wallpaper.setFileName(jsonObject.optString("file_name"));
-                wallpaper.setCreatedAt(jsonObject.optString("created_at"));
-
-                JSONObject usersObject = jsonObject.optJSONObject("users");
-                if (usersObject != null) {
-                    String username = usersObject.optString("username", "Anonymous");
-                    wallpaper.setUsername(username);
-                } else {
-                    wallpaper.setUsername("Anonymous");
-                }
-
-                JSONArray tagsArray = jsonObject.optJSONArray("tags");
-                if (tagsArray != null) {
-                    List<String> tags = new ArrayList<>();
-                    for (int j = 0; j < tagsArray.length(); j++) {
-                        tags.add(tagsArray.getString(j));
-                    }
-                    wallpaper.setTags(tags);
-                }
-
-                JSONArray colorPaletteArray = jsonObject.optJSONArray("color_palette");
-                if (colorPaletteArray != null) {
-                    List<String> colorPalette = new ArrayList<>();
-                    for (int j = 0; j < colorPaletteArray.length(); j++) {
-                        colorPalette.add(colorPaletteArray.getString(j));
-                    }
-                    wallpaper.setColorPalette(colorPalette);
-                }
-
-                newWallpapers.add(wallpaper);
+        if (!snapshot.isEmpty()) {
+            binding.emptyState.setVisibility(View.GONE);
+            showMainContent();
+            if (FirstPaintTracker.getFirstCardMs() < 0) {
+                String source = homeViewModel.isShowingCachedData() ? "cache" : "network";
+                OneShotPreDrawListener.add(binding.wallpaperRecyclerView, () -> FirstPaintTracker.onFirstCard(source));
             }
+        }
+    }
 
-            int insertPosition = wallpapers.size();
-            wallpapers.addAll(newWallpapers);
-            totalLoadedItems += newItemsCount;
-
-            if (isInitialLoad && !newWallpapers.isEmpty()) {
-                carouselWallpapers.clear();
-                int carouselCount = Math.min(5, newWallpapers.size());
-                for (int i = 0; i < carouselCount; i++) {
-                    carouselWallpapers.add(newWallpapers.get(i));
-                }
-                carouselAdapter.notifyDataSetChanged();
+    private void preloadNextPage(int from, int to) {
+        if (binding == null) return;
+        ImageCacheManager cacheManager = ImageCacheManager.getInstance(requireContext());
+        for (int position = from; position < Math.min(to, from + PRELOAD_AHEAD); position++) {
+            RequestBuilder<Drawable> request = adapter.preloadRequest(position);
+            if (request != null) {
+                cacheManager.preload(preloadBatch, adapter.preloadKey(position), request,
+                        PreloadScheduler.Priority.NEXT_PAGE);
             }
+        }
+    }
 
-            if (isInitialLoad) {
-                adapter.notifyDataSetChanged();
-            } else {
-                adapter.notifyItemRangeInserted(insertPosition, newItemsCount);
+    private void preloadCarousel() {
+        if (binding == null) return;
+        ImageCacheManager cacheManager = ImageCacheManager.getInstance(requireContext());
+        for (int position = 0; position < carouselAdapter.getItemCount(); position++) {
+            RequestBuilder<Drawable> request = carouselAdapter.preloadRequest(position);
+            if (request != null) {
+                cacheManager.preload(preloadBatch, carouselAdapter.getCurrentList().get(position).getImageUrl(),
+                        request, PreloadScheduler.Priority.CAROUSEL);
             }
-
-        } catch (Exception e) {
         }
     }
 
     private void setLoadingState(boolean isLoading) {
-        if (getActivity() == null || binding == null) return;
-
-        getActivity().runOnUiThread(() -> {
-            if (isLoading && currentPage == 0) {
-                if (!swipeRefreshLayout.isRefreshing()) {
-                    binding.initialLoadingLayout.setVisibility(View.VISIBLE);
-                    binding.mainContentScroll.setVisibility(View.GONE);
-                }
-            } else {
-                binding.initialLoadingLayout.setVisibility(View.GONE);
-                swipeRefreshLayout.setRefreshing(false);
-            }
-        });
+        if (binding == null) return;
+
+        if (isLoading && adapter.getCurrentList().isEmpty()) {
+            binding.emptyState.setVisibility(View.GONE);
+            adapter.showPlaceholders(PLACEHOLDER_COUNT);
+            showMainContent();
+        } else if (!isLoading) {
+            adapter.showPlaceholders(0);
+            binding.swipeRefreshLayout.setRefreshing(false);
+            showMainContent();
+        }
     }
 
     private void showMainContent() {
-        if (getActivity() == null || binding == null) return;
-
-        getActivity().runOnUiThread(() -> {
-            binding.mainContentScroll.setVisibility(View.VISIBLE);
-        });
+        if (binding == null) return;
+        binding.wallpaperRecyclerView.setVisibility(View.VISIBLE);
     }
 
     @Override
@@ -377,47 +228,17 @@ public class HomeFragment extends Fragment implements WallpaperAdapter.OnWallpap
         startActivity(intent);
     }
 
-    private void observeViewModel(HomeViewModel homeViewModel) {
-        homeViewModel.getWallpapers().observe(getViewLifecycleOwner(), wallpaperList -> {
-            if (wallpaperList != null && !wallpaperList.isEmpty()) {
-                wallpapers.clear();
-                wallpapers.addAll(wallpaperList);
-                adapter.notifyDataSetChanged();
-                isDataLoaded = true;
-                showMainContent();
-            }
-        });
-
-        homeViewModel.getCarouselWallpapers().observe(getViewLifecycleOwner(), carouselList -> {
-            if (carouselList != null && !carouselList.isEmpty()) {
-                carouselWallpapers.clear();
-                carouselWallpapers.addAll(carouselList);
-                carouselAdapter.notifyDataSetChanged();
-            }
-        });
-
-        homeViewModel.getLoadingState().observe(getViewLifecycleOwner(), isLoading -> {
-            setLoadingState(isLoading != null && isLoading);
-            if (isLoading == null || !isLoading) {
-                showMainContent();
-            }
-        });
-    }
-
     @Override
-    public void onResume() {
-        super.onResume();
-
-        if (adapter != null && wallpapers.size() > 0) {
-            int visibleItems = 10;
-            adapter.preloadImages(wallpapers.size() - visibleItems, visibleItems);
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (preloader != null) {
+            preloader.detach();
+            preloader = null;
         }
+        if (preloadBatch != null) {
+            preloadBatch.cancel();
+            preloadBatch = null;
+        }
+        binding = null;
     }
-
-    @Override
-    public void onPause() {
-        super.onPause();
-
-        ImageCacheManager.getInstance(requireContext()).cancelPreloadTasks();
-    }
-}
\ No newline at end of file
+}
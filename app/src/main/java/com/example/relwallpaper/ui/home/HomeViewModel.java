@@ -1,27 +1,45 @@
 package com.example.relwallpaper.ui.home;
 
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import com.example.relwallpaper.data.WallpaperPager;
+import com.example.relwallpaper.data.WallpaperRepository;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
-import android.util.Log;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class HomeViewModel extends ViewModel {
+public class HomeViewModel extends AndroidViewModel {
     private static final String TAG = "HomeViewModel";
 
-    private MutableLiveData<List<Wallpaper>> wallpapers = new MutableLiveData<>(new ArrayList<>());
-    private MutableLiveData<List<Wallpaper>> carouselWallpapers = new MutableLiveData<>(new ArrayList<>());
-    private MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
-    private MutableLiveData<Boolean> hasMoreData = new MutableLiveData<>(true);
-    private MutableLiveData<Integer> currentPage = new MutableLiveData<>(0);
+    private static final int PAGE_SIZE = 20;
+    private static final int CAROUSEL_SIZE = 5;
+    private static final long CACHE_DURATION = 5 * 60 * 1000;
+
+    private final MutableLiveData<List<Wallpaper>> wallpapers = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<List<Wallpaper>> carouselWallpapers = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
+    private final MutableLiveData<Boolean> hasMoreData = new MutableLiveData<>(true);
+    private final MutableLiveData<String> loadError = new MutableLiveData<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final WallpaperRepository repository;
+    private final WallpaperPager pager;
+    private final List<Wallpaper> items = new ArrayList<>();
 
     private long lastLoadTime = 0;
-    private static final long CACHE_DURATION = 5 * 60 * 1000;
+    private boolean showingCachedData = false;
+    private int generation = 0;
 
-    public HomeViewModel() {
-        super();
+    public HomeViewModel(@NonNull Application application) {
+        super(application);
+        repository = WallpaperRepository.getInstance(application);
+        pager = repository.newFeedPager(PAGE_SIZE);
     }
 
     public LiveData<List<Wallpaper>> getWallpapers() {
@@ -40,85 +58,100 @@ public class HomeViewModel extends ViewModel {
         return hasMoreData;
     }
 
-    public LiveData<Integer> getCurrentPage() {
-        return currentPage;
+    public LiveData<String> getLoadError() {
+        return loadError;
     }
 
-    public void setWallpapers(List<Wallpaper> newWallpapers) {
-        List<Wallpaper> currentList = wallpapers.getValue();
-        if (currentList == null) {
-            currentList = new ArrayList<>();
-        }
-
-        currentList.clear();
-        currentList.addAll(newWallpapers);
-        wallpapers.setValue(currentList);
-        lastLoadTime = System.currentTimeMillis();
-
-        updateCarousel(newWallpapers);
-
+    public boolean isShowingCachedData() {
+        return showingCachedData;
     }
 
-    public void addWallpapers(List<Wallpaper> newWallpapers) {
-        List<Wallpaper> currentList = wallpapers.getValue();
-        if (currentList == null) {
-            currentList = new ArrayList<>();
-        }
-
-        currentList.addAll(newWallpapers);
-        wallpapers.setValue(currentList);
-
+    public boolean needsRefresh() {
+        boolean isStale = (System.currentTimeMillis() - lastLoadTime) > CACHE_DURATION;
+        return items.isEmpty() || isStale;
     }
 
-    private void updateCarousel(List<Wallpaper> wallpaperList) {
-        List<Wallpaper> carousel = new ArrayList<>();
-        int count = Math.min(5, wallpaperList.size());
-        for (int i = 0; i < count; i++) {
-            carousel.add(wallpaperList.get(i));
+    public void loadIfNeeded() {
+        if (needsRefresh()) {
+            refresh();
         }
-        carouselWallpapers.setValue(carousel);
     }
 
-    public void setLoadingState(boolean loading) {
-        isLoading.setValue(loading);
-    }
-
-    public void setHasMoreData(boolean hasMore) {
-        hasMoreData.setValue(hasMore);
-    }
-
-    public void setCurrentPage(int page) {
-        currentPage.setValue(page);
-    }
-
-    public boolean needsRefresh() {
-        List<Wallpaper> currentWallpapers = wallpapers.getValue();
-        boolean isEmpty = currentWallpapers == null || currentWallpapers.isEmpty();
-        boolean isStale = (System.currentTimeMillis() - lastLoadTime) > CACHE_DURATION;
-
-        return isEmpty || isStale;
+    public void refresh() {
+        generation++;
+        pager.reset();
+        if (items.isEmpty()) {
+            loadCached(generation);
+        }
+        loadPage();
     }
 
-    public int getWallpaperCount() {
-        List<Wallpaper> currentWallpapers = wallpapers.getValue();
-        return currentWallpapers != null ? currentWallpapers.size() : 0;
+    public void loadMore() {
+        if (!pager.isLoading() && pager.hasMore()) {
+            loadPage();
+        }
     }
 
-    public void clearData() {
-        wallpapers.setValue(new ArrayList<>());
-        carouselWallpapers.setValue(new ArrayList<>());
-        currentPage.setValue(0);
-        hasMoreData.setValue(true);
-        lastLoadTime = 0;
-
+    private void loadCached(int requestGeneration) {
+        repository.loadCachedFeed(PAGE_SIZE, cached -> mainHandler.post(() -> {
+            if (requestGeneration != generation || cached.isEmpty() || !items.isEmpty()) return;
+            if (!pager.isFirstPage()) return;
+            items.addAll(cached);
+            showingCachedData = true;
+            publish(true);
+        }));
+    }
+
+    private void loadPage() {
+        if (pager.isLoading()) return;
+
+        int requestGeneration = generation;
+        isLoading.setValue(true);
+
+        pager.loadNext(new WallpaperPager.PageCallback() {
+            @Override
+            public void onPage(List<Wallpaper> page, boolean firstPage) {
+                mainHandler.post(() -> {
+                    if (requestGeneration != generation) return;
+                    if (firstPage) {
+                        items.clear();
+                        showingCachedData = false;
+                        lastLoadTime = System.currentTimeMillis();
+                    }
+                    items.addAll(page);
+                    hasMoreData.setValue(pager.hasMore());
+                    isLoading.setValue(false);
+                    publish(firstPage);
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                mainHandler.post(() -> {
+                    if (requestGeneration != generation) return;
+                    isLoading.setValue(false);
+                    loadError.setValue(message);
+                });
+            }
+        });
+    }
+
+    private void publish(boolean updateCarousel) {
+        wallpapers.setValue(Collections.unmodifiableList(new ArrayList<>(items)));
+        if (updateCarousel) {
+            int count = Math.min(CAROUSEL_SIZE, items.size());
+            carouselWallpapers.setValue(Collections.unmodifiableList(new ArrayList<>(items.subList(0, count))));
+        }
     }
 
-    public void forceRefresh() {
-        lastLoadTime = 0;
+    public void consumeLoadError() {
+        loadError.setValue(null);
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
+        mainHandler.removeCallbacksAndMessages(null);
+        pager.reset();
     }
-}
\ No newline at end of file
+}
@@ -9,9 +9,15 @@ import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 public class WallpaperItemDecoration extends RecyclerView.ItemDecoration {
 
     private final int spacing;
+    private final int leadingItems;
 
     public WallpaperItemDecoration(int spacing) {
+        this(spacing, 0);
+    }
+
+    public WallpaperItemDecoration(int spacing, int leadingItems) {
         this.spacing = spacing;
+        this.leadingItems = leadingItems;
     }
 
     @Override
@@ -21,8 +27,13 @@ public class WallpaperItemDecoration extends RecyclerView.ItemDecoration {
         StaggeredGridLayoutManager.LayoutParams layoutParams =
                 (StaggeredGridLayoutManager.LayoutParams) view.getLayoutParams();
 
+        if (layoutParams.isFullSpan()) {
+            outRect.setEmpty();
+            return;
+        }
+
         int spanIndex = layoutParams.getSpanIndex();
-        int position = parent.getChildAdapterPosition(view);
+        int position = parent.getChildAdapterPosition(view) - leadingItems;
 
         outRect.top = spacing / 2;
         outRect.bottom = spacing / 2;
@@ -35,7 +46,7 @@ public class WallpaperItemDecoration extends RecyclerView.ItemDecoration {
             outRect.right = spacing;
         }
 
-        if (position < 2) {
+        if (position >= 0 && position < 2) {
             outRect.top = spacing;
         }
     }
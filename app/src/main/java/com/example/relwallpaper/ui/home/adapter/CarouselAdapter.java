@@ -1,37 +1,50 @@
 package com.example.relwallpaper.ui.home.adapter;
 
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
 import com.bumptech.glide.load.resource.bitmap.CenterCrop;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
+import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
 import com.example.relwallpaper.R;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.example.relwallpaper.ui.utils.ImageCacheManager;
+import com.example.relwallpaper.ui.utils.Thumbnail;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.carousel.CarouselLayoutManager;
 import com.google.android.material.carousel.CarouselSnapHelper;
 import com.google.android.material.carousel.MultiBrowseCarouselStrategy;
-import java.util.List;
 
-public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.CarouselViewHolder> {
+public class CarouselAdapter extends ListAdapter<Wallpaper, CarouselAdapter.CarouselViewHolder> {
 
-    private List<Wallpaper> wallpapers;
     private OnCarouselItemClickListener listener;
+    private RequestManager glide;
+    private ImageCacheManager cacheManager;
+    private RequestOptions carouselOptions;
+    private int imageWidthPx;
+    private int imageHeightPx;
 
     public interface OnCarouselItemClickListener {
         void onCarouselItemClick(Wallpaper wallpaper, int position);
     }
 
-    public CarouselAdapter(List<Wallpaper> wallpapers, OnCarouselItemClickListener listener) {
-        this.wallpapers = wallpapers;
+    public CarouselAdapter(OnCarouselItemClickListener listener) {
+        super(new WallpaperDiffCallback());
         this.listener = listener;
     }
 
@@ -51,6 +64,15 @@ public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.Carous
     @NonNull
     @Override
     public CarouselViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (glide == null) {
+            float density = parent.getResources().getDisplayMetrics().density;
+            glide = Glide.with(parent.getContext());
+            cacheManager = ImageCacheManager.getInstance(parent.getContext());
+            carouselOptions = new RequestOptions()
+                    .transform(new CenterCrop(), new RoundedCorners((int) (28 * density)))
+                    .priority(com.bumptech.glide.Priority.HIGH)
+                    .lock();
+        }
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_carousel_card, parent, false);
         return new CarouselViewHolder(view);
@@ -58,17 +80,32 @@ public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.Carous
 
     @Override
     public void onBindViewHolder(@NonNull CarouselViewHolder holder, int position) {
-        if (wallpapers != null && position < wallpapers.size()) {
-            Wallpaper wallpaper = wallpapers.get(position);
-            holder.bind(wallpaper, position);
-        }
+        holder.bind(getItem(position), position);
     }
 
-    @Override
-    public int getItemCount() {
-        return wallpapers != null ? wallpapers.size() : 0;
+    @Nullable
+    public RequestBuilder<Drawable> preloadRequest(int position) {
+        if (glide == null || imageWidthPx == 0 || position < 0 || position >= getItemCount()) return null;
+        String imageUrl = getItem(position).getImageUrl();
+        if (imageUrl == null || imageUrl.isEmpty()) return null;
+        return glide.load(Thumbnail.of(imageUrl))
+                .apply(carouselOptions)
+                .override(imageWidthPx, imageHeightPx);
     }
 
+    private final RequestListener<Drawable> imageListener = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+            cacheManager.recordDisplay(model.toString(), 0, 0);
+            return false;
+        }
+    };
+
     class CarouselViewHolder extends RecyclerView.ViewHolder {
         private com.google.android.material.carousel.MaskableFrameLayout container;
         private MaterialCardView cardView;
@@ -92,18 +129,16 @@ public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.Carous
 
             String imageUrl = wallpaper.getImageUrl();
 
+            if (imageView.getWidth() > 0 && imageView.getHeight() > 0) {
+                imageWidthPx = imageView.getWidth();
+                imageHeightPx = imageView.getHeight();
+            }
+
             if (imageUrl != null && !imageUrl.isEmpty()) {
-                RequestOptions requestOptions = new RequestOptions()
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
-                        .error(R.drawable.error_image)
-                        .transform(new CenterCrop(), new RoundedCorners(dpToPx(28)))
-                        .priority(com.bumptech.glide.Priority.HIGH)
-                        .skipMemoryCache(false);
-
-                Glide.with(imageView.getContext())
-                        .load(imageUrl)
-                        .apply(requestOptions)
+                glide.load(Thumbnail.of(imageUrl))
+                        .apply(carouselOptions)
                         .transition(DrawableTransitionOptions.withCrossFade(200))
+                        .listener(imageListener)
                         .into(imageView);
             }
 
@@ -146,14 +181,5 @@ public class CarouselAdapter extends RecyclerView.Adapter<CarouselAdapter.Carous
                 return false;
             });
         }
-
-        private int dpToPx(int dp) {
-            return (int) (dp * imageView.getContext().getResources().getDisplayMetrics().density);
-        }
-    }
-
-    public void updateWallpapers(List<Wallpaper> newWallpapers) {
-        this.wallpapers = newWallpapers;
-        notifyDataSetChanged();
     }
 }
\ No newline at end of file
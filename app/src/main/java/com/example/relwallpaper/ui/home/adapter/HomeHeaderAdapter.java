@@ -0,0 +1,48 @@
+package com.example.relwallpaper.ui.home.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import com.example.relwallpaper.R;
+
+public class HomeHeaderAdapter extends RecyclerView.Adapter<HomeHeaderAdapter.HeaderViewHolder> {
+
+    private final CarouselAdapter carouselAdapter;
+
+    public HomeHeaderAdapter(CarouselAdapter carouselAdapter) {
+        this.carouselAdapter = carouselAdapter;
+    }
+
+    @NonNull
+    @Override
+    public HeaderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_home_header, parent, false);
+        ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+        if (layoutParams instanceof StaggeredGridLayoutManager.LayoutParams) {
+            ((StaggeredGridLayoutManager.LayoutParams) layoutParams).setFullSpan(true);
+        }
+        return new HeaderViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HeaderViewHolder holder, int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    class HeaderViewHolder extends RecyclerView.ViewHolder {
+
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            RecyclerView carouselRecyclerView = itemView.findViewById(R.id.carousel_recycler_view);
+            CarouselAdapter.setupCarousel(carouselRecyclerView);
+            carouselRecyclerView.setAdapter(carouselAdapter);
+        }
+    }
+}
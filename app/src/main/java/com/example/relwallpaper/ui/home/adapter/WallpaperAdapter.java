@@ -2,71 +2,152 @@ package com.example.relwallpaper.ui.home.adapter;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
-import android.graphics.Color;
-import android.graphics.drawable.GradientDrawable;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
 import com.bumptech.glide.load.resource.bitmap.CenterCrop;
 import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
+import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.ui.home.AspectRatioCardView;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
-import com.google.android.material.card.MaterialCardView;
+import com.example.relwallpaper.ui.utils.FirstPaintTracker;
+import com.example.relwallpaper.ui.utils.GridPreloader;
+import com.example.relwallpaper.ui.utils.ImageCacheManager;
+import com.example.relwallpaper.ui.utils.Thumbnail;
 import java.util.List;
 
-public class WallpaperAdapter extends RecyclerView.Adapter<WallpaperAdapter.WallpaperViewHolder> {
+public class WallpaperAdapter extends ListAdapter<Wallpaper, WallpaperAdapter.WallpaperViewHolder>
+        implements GridPreloader.RequestProvider {
+
+    private static final int VIEW_TYPE_WALLPAPER = 0;
+    private static final int VIEW_TYPE_PLACEHOLDER = 1;
+    private static final int[] ITEM_HEIGHTS_DP = {300, 350, 400, 450, 500, 380, 420};
+    private static final int CORNER_RADIUS_DP = 12;
+    private static final float MIN_ASPECT_RATIO = 0.5f;
+    private static final float MAX_ASPECT_RATIO = 2.5f;
+    private static final DrawableTransitionOptions CROSS_FADE = DrawableTransitionOptions.withCrossFade(200);
 
-    private List<Wallpaper> wallpapers;
     private OnWallpaperClickListener listener;
     private Context context;
-
-    private final int[] itemHeights = {300, 350, 400, 450, 500, 380, 420};
+    private RequestManager glide;
+    private ImageCacheManager cacheManager;
+    private RequestOptions cardOptions;
+    private int[] itemHeightsPx;
+    private int slotWidthPx;
+    private int placeholderCount = 0;
 
     public interface OnWallpaperClickListener {
         void onWallpaperClick(Wallpaper wallpaper, int position);
         void onWallpaperLongClick(Wallpaper wallpaper, int position);
     }
 
-    public WallpaperAdapter(List<Wallpaper> wallpapers, OnWallpaperClickListener listener) {
-        this.wallpapers = wallpapers;
+    public WallpaperAdapter(OnWallpaperClickListener listener) {
+        super(new WallpaperDiffCallback());
         this.listener = listener;
     }
 
+    @Override
+    public void submitList(List<Wallpaper> list) {
+        submitList(list, null);
+    }
+
+    @Override
+    public void submitList(List<Wallpaper> list, Runnable commitCallback) {
+        if (list != null && !list.isEmpty()) {
+            showPlaceholders(0);
+        } else if (!getCurrentList().isEmpty()) {
+            placeholderCount = 0;
+        }
+        super.submitList(list, commitCallback);
+    }
+
+    public void showPlaceholders(int count) {
+        if (placeholderCount == count) return;
+        boolean listEmpty = getCurrentList().isEmpty();
+        int previous = placeholderCount;
+        placeholderCount = count;
+        if (!listEmpty) return;
+        if (count > previous) {
+            notifyItemRangeInserted(previous, count - previous);
+        } else {
+            notifyItemRangeRemoved(count, previous - count);
+        }
+    }
+
+    private boolean isShowingPlaceholders() {
+        return placeholderCount > 0 && getCurrentList().isEmpty();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return isShowingPlaceholders() ? VIEW_TYPE_PLACEHOLDER : VIEW_TYPE_WALLPAPER;
+    }
+
     @NonNull
     @Override
     public WallpaperViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        context = parent.getContext();
+        if (context != parent.getContext()) {
+            context = parent.getContext();
+            initResources();
+        }
         View view = LayoutInflater.from(context).inflate(R.layout.item_wallpaper_card, parent, false);
         return new WallpaperViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull WallpaperViewHolder holder, int position) {
-        Wallpaper wallpaper = wallpapers.get(position);
-        holder.bind(wallpaper, position);
+        if (isShowingPlaceholders()) {
+            holder.bindPlaceholder(position);
+            return;
+        }
+        holder.bind(getItem(position), position);
     }
 
     @Override
     public int getItemCount() {
-        return wallpapers.size();
+        return isShowingPlaceholders() ? placeholderCount : super.getItemCount();
+    }
+
+    private void initResources() {
+        float density = context.getResources().getDisplayMetrics().density;
+        itemHeightsPx = new int[ITEM_HEIGHTS_DP.length];
+        for (int i = 0; i < ITEM_HEIGHTS_DP.length; i++) {
+            itemHeightsPx[i] = (int) (ITEM_HEIGHTS_DP[i] * density);
+        }
+        glide = Glide.with(context);
+        cacheManager = ImageCacheManager.getInstance(context);
+        cardOptions = new RequestOptions()
+                .transform(new CenterCrop(), new RoundedCorners((int) (CORNER_RADIUS_DP * density)))
+                .lock();
     }
 
     class WallpaperViewHolder extends RecyclerView.ViewHolder {
-        private MaterialCardView cardView;
+        private AspectRatioCardView cardView;
         private ImageView wallpaperImage;
         private View overlayGradient;
         private TextView wallpaperName;
         private TextView wallpaperUsername;
-        private View colorIndicator;
+        private int boundColor;
 
+        @SuppressLint("ClickableViewAccessibility")
         public WallpaperViewHolder(@NonNull View itemView) {
             super(itemView);
             cardView = itemView.findViewById(R.id.wallpaper_card);
@@ -74,43 +155,18 @@ public class WallpaperAdapter extends RecyclerView.Adapter<WallpaperAdapter.Wall
             overlayGradient = itemView.findViewById(R.id.overlay_gradient);
             wallpaperName = itemView.findViewById(R.id.wallpaper_name);
             wallpaperUsername = itemView.findViewById(R.id.wallpaper_username);
-        }
-
-        @SuppressLint("ClickableViewAccessibility")
-        public void bind(Wallpaper wallpaper, int position) {
-            ViewGroup.LayoutParams layoutParams = cardView.getLayoutParams();
-            layoutParams.height = dpToPx(itemHeights[position % itemHeights.length]);
-            cardView.setLayoutParams(layoutParams);
-
-            RequestOptions requestOptions = new RequestOptions()
-                    .diskCacheStrategy(DiskCacheStrategy.ALL)
-                    .error(R.drawable.error_image)
-                    .transform(new CenterCrop(), new RoundedCorners(dpToPx(12)))
-                    .override(400, 600)
-                    .skipMemoryCache(false);
-
-            Glide.with(context)
-                    .load(wallpaper.getImageUrl())
-                    .apply(requestOptions)
-                    .transition(DrawableTransitionOptions.withCrossFade(200))
-                    .into(wallpaperImage);
-
-            wallpaperName.setText(wallpaper.getName());
-            wallpaperUsername.setText(wallpaper.getFormattedUsername());
-
-            if (wallpaper.getColorPalette() != null && !wallpaper.getColorPalette().isEmpty()) {
-                setColorIndicator(wallpaper.getColorPalette());
-            }
 
             cardView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onWallpaperClick(wallpaper, position);
+                int position = getBindingAdapterPosition();
+                if (listener != null && isBoundToWallpaper(position)) {
+                    listener.onWallpaperClick(getItem(position), position);
                 }
             });
 
             cardView.setOnLongClickListener(v -> {
-                if (listener != null) {
-                    listener.onWallpaperLongClick(wallpaper, position);
+                int position = getBindingAdapterPosition();
+                if (listener != null && isBoundToWallpaper(position)) {
+                    listener.onWallpaperLongClick(getItem(position), position);
                 }
                 return true;
             });
@@ -137,37 +193,91 @@ public class WallpaperAdapter extends RecyclerView.Adapter<WallpaperAdapter.Wall
             });
         }
 
-        private void setColorIndicator(List<String> colorPalette) {
-            if (colorIndicator == null) return;
+        public void bind(Wallpaper wallpaper, int position) {
+            float aspectRatio = aspectRatioOf(wallpaper);
+            if (aspectRatio > 0) {
+                cardView.setAspectRatio(aspectRatio);
+            } else {
+                setCardHeight(position);
+            }
+            if (wallpaperImage.getWidth() > 0) {
+                slotWidthPx = wallpaperImage.getWidth();
+            }
 
-            int[] colors = new int[Math.min(colorPalette.size(), 3)];
+            glide.load(Thumbnail.of(wallpaper.getImageUrl()))
+                    .apply(cardOptions)
+                    .transition(CROSS_FADE)
+                    .listener(imageListener)
+                    .into(wallpaperImage);
 
-            for (int i = 0; i < colors.length; i++) {
-                try {
-                    colors[i] = Color.parseColor(colorPalette.get(i));
-                } catch (Exception e) {
-                    colors[i] = context.getColor(com.google.android.material.R.color.material_dynamic_primary20);
-                }
-            }
+            wallpaperName.setText(wallpaper.getName());
+            wallpaperUsername.setText(wallpaper.getFormattedUsername());
+            overlayGradient.setVisibility(View.VISIBLE);
+            setPlaceholderColor(wallpaper.getPrimaryColorInt());
+            cardView.setClickable(true);
+        }
 
-            GradientDrawable gradient = new GradientDrawable(
-                    GradientDrawable.Orientation.LEFT_RIGHT, colors);
-            gradient.setCornerRadius(dpToPx(8));
+        void bindPlaceholder(int position) {
+            setCardHeight(position);
 
-            colorIndicator.setBackground(gradient);
-            colorIndicator.setVisibility(View.VISIBLE);
+            glide.clear(wallpaperImage);
+            wallpaperImage.setImageDrawable(null);
+            overlayGradient.setVisibility(View.GONE);
+            wallpaperName.setText(null);
+            wallpaperUsername.setText(null);
+            cardView.setClickable(false);
         }
 
-        private int getContrastColor(int color) {
-            double luminance = (0.299 * Color.red(color) + 0.587 * Color.green(color) + 0.114 * Color.blue(color)) / 255;
-            return luminance > 0.5 ? Color.BLACK : Color.WHITE;
+        private boolean isBoundToWallpaper(int position) {
+            return position != RecyclerView.NO_POSITION
+                    && !isShowingPlaceholders()
+                    && position < getCurrentList().size();
+        }
+
+        private void setCardHeight(int position) {
+            cardView.setAspectRatio(0f);
+            int height = itemHeightsPx[position % itemHeightsPx.length];
+            ViewGroup.LayoutParams layoutParams = cardView.getLayoutParams();
+            if (layoutParams.height != height) {
+                layoutParams.height = height;
+                cardView.setLayoutParams(layoutParams);
+            }
         }
 
-        private int dpToPx(int dp) {
-            return (int) (dp * context.getResources().getDisplayMetrics().density);
+        private void setPlaceholderColor(int color) {
+            if (boundColor == color && wallpaperImage.getBackground() != null) return;
+            boundColor = color;
+            wallpaperImage.setBackgroundColor(color);
         }
     }
 
+    private static float aspectRatioOf(Wallpaper wallpaper) {
+        float aspectRatio = wallpaper.getAspectRatio();
+        if (aspectRatio <= 0) return 0f;
+        return Math.max(MIN_ASPECT_RATIO, Math.min(MAX_ASPECT_RATIO, aspectRatio));
+    }
+
+    private final RequestListener<Drawable> imageListener = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+            if (FirstPaintTracker.isWaitingForImage()) {
+                FirstPaintTracker.onFirstImage();
+            }
+            if (resource instanceof BitmapDrawable) {
+                Bitmap bitmap = ((BitmapDrawable) resource).getBitmap();
+                cacheManager.recordDisplay(model.toString(), bitmap.getWidth(), bitmap.getHeight());
+            } else {
+                cacheManager.recordDisplay(model.toString(), 0, 0);
+            }
+            return false;
+        }
+    };
+
     public void clearImageCache() {
         if (context != null) {
             Glide.get(context).clearMemory();
@@ -175,18 +285,27 @@ public class WallpaperAdapter extends RecyclerView.Adapter<WallpaperAdapter.Wall
         }
     }
 
-    public void preloadImages(int startPosition, int count) {
-        if (context == null) return;
+    @Nullable
+    @Override
+    public String preloadKey(int position) {
+        if (position < 0 || position >= getCurrentList().size()) return null;
+        return getItem(position).getImageUrl();
+    }
 
-        int endPosition = Math.min(startPosition + count, wallpapers.size());
-        for (int i = startPosition; i < endPosition; i++) {
-            Wallpaper wallpaper = wallpapers.get(i);
-            if (wallpaper != null && wallpaper.getImageUrl() != null) {
-                Glide.with(context)
-                        .load(wallpaper.getImageUrl())
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
-                        .preload(400, 600);
-            }
-        }
+    @Nullable
+    @Override
+    public RequestBuilder<Drawable> preloadRequest(int position) {
+        if (glide == null || slotWidthPx == 0 || isShowingPlaceholders()) return null;
+        if (position < 0 || position >= getCurrentList().size()) return null;
+
+        Wallpaper wallpaper = getItem(position);
+        if (wallpaper == null || wallpaper.getImageUrl() == null) return null;
+        float aspectRatio = aspectRatioOf(wallpaper);
+        int height = aspectRatio > 0
+                ? Math.round(slotWidthPx * aspectRatio)
+                : itemHeightsPx[position % itemHeightsPx.length];
+        return glide.load(Thumbnail.of(wallpaper.getImageUrl()))
+                .apply(cardOptions)
+                .override(slotWidthPx, height);
     }
 }
\ No newline at end of file
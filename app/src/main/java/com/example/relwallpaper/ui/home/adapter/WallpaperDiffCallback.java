@@ -0,0 +1,24 @@
+package com.example.relwallpaper.ui.home.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.util.Objects;
+
+public class WallpaperDiffCallback extends DiffUtil.ItemCallback<Wallpaper> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Wallpaper oldItem, @NonNull Wallpaper newItem) {
+        return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Wallpaper oldItem, @NonNull Wallpaper newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName())
+                && Objects.equals(oldItem.getUsername(), newItem.getUsername())
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())
+                && oldItem.getWidth() == newItem.getWidth()
+                && oldItem.getHeight() == newItem.getHeight()
+                && Objects.equals(oldItem.getColorPalette(), newItem.getColorPalette());
+    }
+}
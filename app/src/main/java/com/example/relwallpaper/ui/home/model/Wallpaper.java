@@ -4,6 +4,9 @@ import java.io.Serializable;
 import java.util.List;
 
 public class Wallpaper implements Serializable {
+    public static final int DEFAULT_COLOR = 0xFF6750A4;
+    private static final int[] NO_COLORS = new int[0];
+
     private String id;
     private String name;
     private String description;
@@ -13,6 +16,10 @@ public class Wallpaper implements Serializable {
     private List<String> tags;
     private List<String> colorPalette;
     private String username;
+    private int width;
+    private int height;
+    private transient int[] paletteColors;
+    private transient String formattedUsername;
 
     public Wallpaper() {}
 
@@ -51,10 +58,26 @@ public class Wallpaper implements Serializable {
     public void setTags(List<String> tags) { this.tags = tags; }
 
     public List<String> getColorPalette() { return colorPalette; }
-    public void setColorPalette(List<String> colorPalette) { this.colorPalette = colorPalette; }
+    public void setColorPalette(List<String> colorPalette) {
+        this.colorPalette = colorPalette;
+        this.paletteColors = null;
+    }
 
     public String getUsername() { return username; }
-    public void setUsername(String username) { this.username = username; }
+    public void setUsername(String username) {
+        this.username = username;
+        this.formattedUsername = null;
+    }
+
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+
+    public int getHeight() { return height; }
+    public void setHeight(int height) { this.height = height; }
+
+    public float getAspectRatio() {
+        return (width > 0 && height > 0) ? (float) height / width : 0f;
+    }
 
     public String getFirstTag() {
         return (tags != null && !tags.isEmpty()) ? tags.get(0) : "";
@@ -65,6 +88,42 @@ public class Wallpaper implements Serializable {
     }
 
     public String getFormattedUsername() {
-        return (username != null && !username.isEmpty()) ? "By " + username : "By Anonymous";
+        if (formattedUsername == null) {
+            formattedUsername = (username != null && !username.isEmpty()) ? "By " + username : "By Anonymous";
+        }
+        return formattedUsername;
+    }
+
+    public int[] getPaletteColors() {
+        if (paletteColors == null) {
+            if (colorPalette == null || colorPalette.isEmpty()) {
+                paletteColors = NO_COLORS;
+            } else {
+                int[] colors = new int[colorPalette.size()];
+                for (int i = 0; i < colors.length; i++) {
+                    colors[i] = parseColor(colorPalette.get(i), DEFAULT_COLOR);
+                }
+                paletteColors = colors;
+            }
+        }
+        return paletteColors;
+    }
+
+    public int getPrimaryColorInt() {
+        int[] colors = getPaletteColors();
+        return colors.length > 0 ? colors[0] : DEFAULT_COLOR;
+    }
+
+    public static int parseColor(String hex, int fallback) {
+        if (hex == null || hex.isEmpty() || hex.charAt(0) != '#') return fallback;
+        int length = hex.length();
+        if (length != 7 && length != 9) return fallback;
+        long value = 0;
+        for (int i = 1; i < length; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) return fallback;
+            value = (value << 4) | digit;
+        }
+        return length == 7 ? (int) (value | 0xFF000000L) : (int) value;
     }
 }
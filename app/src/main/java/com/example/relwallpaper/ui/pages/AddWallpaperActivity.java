@@ -5,7 +5,6 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Color;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -22,9 +21,12 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.WallpaperTags;
 import com.example.relwallpaper.ui.auth.LoginActivity;
+import com.example.relwallpaper.ui.utils.ColorHistogram;
+import com.example.relwallpaper.ui.utils.OklabKMeansQuantizer;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.chip.Chip;
@@ -40,8 +42,6 @@ import java.io.InputStream;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -49,16 +49,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 import okhttp3.*;
 import android.util.Log;
 
 public class AddWallpaperActivity extends AppCompatActivity {
     private static final int PICK_IMAGE_REQUEST = 1;
     private static final int PERMISSION_REQUEST_CODE = 100;
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "AddWallpaperActivity";
+    private static final int PALETTE_SIZE = 6;
     private TextInputEditText nameEditText, descriptionEditText;
     private ChipGroup tagChipGroup;
     private MaterialButton uploadButton;
@@ -72,7 +70,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
     private TextView imageSizeText;
     private TextView imageFileSizeText;
     private Uri selectedImageUri;
-    private OkHttpClient httpClient;
+    private SupabaseGateway gateway;
     private String accessToken;
     private String currentUserId;
     private String selectedFileName;
@@ -99,11 +97,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
             return;
         }
 
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        gateway = SupabaseGateway.getInstance(this);
 
         initializeViews();
         setupClickListeners();
@@ -237,122 +231,25 @@ public class AddWallpaperActivity extends AppCompatActivity {
     }
 
     /**
-     * Extract 6 dominant colors from the image using k-means clustering algorithm
+     * Extract 6 dominant colors from the image using k-means++ clustering in OKLab
      * @param bitmap The image bitmap
      * @return List of hex color codes
      */
     private List<String> extractColorPalette(Bitmap bitmap) {
-        int maxSize = 100;
+        int maxSize = 200;
         int width = bitmap.getWidth();
         int height = bitmap.getHeight();
         if (width > maxSize || height > maxSize) {
             float scale = Math.min((float) maxSize / width, (float) maxSize / height);
-            width = (int) (width * scale);
-            height = (int) (height * scale);
+            width = Math.max(1, (int) (width * scale));
+            height = Math.max(1, (int) (height * scale));
             bitmap = Bitmap.createScaledBitmap(bitmap, width, height, true);
         }
-        List<ColorData> pixels = new ArrayList<>();
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = bitmap.getPixel(x, y);
-                pixels.add(new ColorData(
-                        Color.red(pixel),
-                        Color.green(pixel),
-                        Color.blue(pixel)
-                ));
-            }
-        }
-        List<ColorData> dominantColors = performKMeansClustering(pixels, 6);
-        List<String> hexColors = new ArrayList<>();
-        for (ColorData color : dominantColors) {
-            String hex = String.format("#%02X%02X%02X", color.r, color.g, color.b);
-            hexColors.add(hex);
-        }
-        return hexColors;
-    }
-
-    private List<ColorData> performKMeansClustering(List<ColorData> pixels, int k) {
-        List<ColorData> centroids = new ArrayList<>();
-        for (int i = 0; i < k; i++) {
-            ColorData randomPixel = pixels.get((int) (Math.random() * pixels.size()));
-            centroids.add(new ColorData(randomPixel.r, randomPixel.g, randomPixel.b));
-        }
-        for (int iteration = 0; iteration < 10; iteration++) {
-            List<List<ColorData>> clusters = new ArrayList<>();
-            for (int i = 0; i < k; i++) {
-                clusters.add(new ArrayList<>());
-            }
-            for (ColorData pixel : pixels) {
-                int nearestCentroid = 0;
-                double minDistance = Double.MAX_VALUE;
-                for (int i = 0; i < centroids.size(); i++) {
-                    double distance = calculateColorDistance(pixel, centroids.get(i));
-                    if (distance < minDistance) {
-                        minDistance = distance;
-                        nearestCentroid = i;
-                    }
-                }
-                clusters.get(nearestCentroid).add(pixel);
-            }
-            for (int i = 0; i < k; i++) {
-                if (!clusters.get(i).isEmpty()) {
-                    int avgR = 0, avgG = 0, avgB = 0;
-                    for (ColorData pixel : clusters.get(i)) {
-                        avgR += pixel.r;
-                        avgG += pixel.g;
-                        avgB += pixel.b;
-                    }
-                    avgR /= clusters.get(i).size();
-                    avgG /= clusters.get(i).size();
-                    avgB /= clusters.get(i).size();
-                    centroids.set(i, new ColorData(avgR, avgG, avgB));
-                }
-            }
-        }
-        List<List<ColorData>> finalClusters = new ArrayList<>();
-        for (int i = 0; i < k; i++) {
-            finalClusters.add(new ArrayList<>());
-        }
-        for (ColorData pixel : pixels) {
-            int nearestCentroid = 0;
-            double minDistance = Double.MAX_VALUE;
-            for (int i = 0; i < centroids.size(); i++) {
-                double distance = calculateColorDistance(pixel, centroids.get(i));
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    nearestCentroid = i;
-                }
-            }
-            finalClusters.get(nearestCentroid).add(pixel);
-        }
-        Collections.sort(centroids, new Comparator<ColorData>() {
-            @Override
-            public int compare(ColorData c1, ColorData c2) {
-                int size1 = 0, size2 = 0;
-                for (int i = 0; i < centroids.size(); i++) {
-                    if (centroids.get(i) == c1) size1 = finalClusters.get(i).size();
-                    if (centroids.get(i) == c2) size2 = finalClusters.get(i).size();
-                }
-                return Integer.compare(size2, size1);
-            }
-        });
-        return centroids;
-    }
-
-    private double calculateColorDistance(ColorData c1, ColorData c2) {
-        int dr = c1.r - c2.r;
-        int dg = c1.g - c2.g;
-        int db = c1.b - c2.b;
-        return Math.sqrt(dr * dr + dg * dg + db * db);
-    }
-
-    private static class ColorData {
-        int r, g, b;
-        ColorData(int r, int g, int b) {
-            this.r = r;
-            this.g = g;
-            this.b = b;
-        }
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+        return new OklabKMeansQuantizer()
+                .quantize(ColorHistogram.of(pixels, pixels.length), PALETTE_SIZE)
+                .toHexList();
     }
 
     private void updateImagePreview() {
@@ -456,16 +353,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
     }
 
     private void uploadToSupabaseStorage(byte[] imageBytes, String fileName) {
-        String storageUrl = SUPABASE_URL + "/storage/v1/object/wallpapers/" + fileName + "?upsert=true";
-        RequestBody requestBody = RequestBody.create(imageBytes, MediaType.parse("image/jpeg"));
-        Request request = new Request.Builder()
-                .url(storageUrl)
-                .post(requestBody)
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .addHeader("Content-Type", "image/jpeg")
-                .build();
-        httpClient.newCall(request).enqueue(new Callback() {
+        gateway.uploadObject("wallpapers", fileName, imageBytes, "image/jpeg", new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 runOnUiThread(() -> showError("Upload failed: " + e.getMessage()));
@@ -479,7 +367,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
                     setLoadingState(false);
                     return;
                 }
-                String imageUrl = SUPABASE_URL + "/storage/v1/object/public/wallpapers/" + fileName;
+                String imageUrl = gateway.publicObjectUrl("wallpapers", fileName);
                 saveWallpaperMetadata(imageUrl, fileName);
             }
         });
@@ -498,6 +386,10 @@ public class AddWallpaperActivity extends AppCompatActivity {
             metadata.put("tags", new JSONArray(getSelectedTags()));
             metadata.put("created_at", createdAt);
             metadata.put("user_id", currentUserId);
+            if (selectedImageWidth > 0 && selectedImageHeight > 0) {
+                metadata.put("width", selectedImageWidth);
+                metadata.put("height", selectedImageHeight);
+            }
 
             if (extractedColorPalette != null && !extractedColorPalette.isEmpty()) {
                 JSONArray colorPaletteArray = new JSONArray();
@@ -506,22 +398,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
                 }
                 metadata.put("color_palette", colorPaletteArray);
             }
-            String metadataUrl = SUPABASE_URL + "/rest/v1/wallpapers";
-
-
-            RequestBody requestBody = RequestBody.create(
-                    metadata.toString(),
-                    MediaType.parse("application/json")
-            );
-            Request request = new Request.Builder()
-                    .url(metadataUrl)
-                    .post(requestBody)
-                    .addHeader("Authorization", "Bearer " + accessToken)
-                    .addHeader("apikey", SUPABASE_API_KEY)
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("Prefer", "return=minimal")
-                    .build();
-            httpClient.newCall(request).enqueue(new Callback() {
+            gateway.insert("wallpapers", metadata, new Callback() {
                 @Override
                 public void onFailure(Call call, IOException e) {
                     Log.e(TAG, "Failed to save metadata: " + e.getMessage(), e);
@@ -555,7 +432,7 @@ public class AddWallpaperActivity extends AppCompatActivity {
         if (checkedChipId != View.NO_ID) {
             Chip selectedChip = findViewById(checkedChipId);
             if (selectedChip != null) {
-                selectedTags.add(selectedChip.getText().toString());
+                selectedTags.add(WallpaperTags.normalize(selectedChip.getText().toString()));
             }
         }
         return selectedTags;
@@ -601,10 +478,4 @@ public class AddWallpaperActivity extends AppCompatActivity {
             return null;
         }
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        httpClient.dispatcher().executorService().shutdown();
-    }
 }
@@ -14,7 +14,6 @@ import android.view.LayoutInflater;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.example.relwallpaper.BuildConfig;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.example.relwallpaper.R;
 import com.example.relwallpaper.ui.auth.LoginActivity;
@@ -32,7 +31,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
-import okhttp3.*;
 
 public class ProfilePageActivity extends AppCompatActivity {
 
@@ -42,10 +40,7 @@ public class ProfilePageActivity extends AppCompatActivity {
     private CountDownTimer jwtCountdownTimer;
     private AlertDialog loadingDialog;
 
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "ProfilePageActivity";
-    private final OkHttpClient httpClient = new OkHttpClient();
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -216,8 +211,5 @@ public class ProfilePageActivity extends AppCompatActivity {
             jwtCountdownTimer.cancel();
         }
         dismissLoadingDialog();
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-        }
     }
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package com.example.relwallpaper.ui.pages;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -10,46 +9,44 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.WallpaperColumns;
+import com.example.relwallpaper.data.WallpaperListCallback;
+import com.example.relwallpaper.data.WallpaperSearch;
+import com.example.relwallpaper.data.WallpaperStore;
 import com.example.relwallpaper.databinding.ActivitySearchResultsBinding;
 import com.example.relwallpaper.ui.home.WallpaperItemDecoration;
 import com.example.relwallpaper.ui.home.adapter.WallpaperAdapter;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.example.relwallpaper.ui.utils.GridPreloader;
 import com.google.android.material.appbar.AppBarLayout;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.loadingindicator.LoadingIndicator;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class SearchResultsActivity extends AppCompatActivity implements WallpaperAdapter.OnWallpaperClickListener {
 
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "SearchResultsActivity";
     public static final String EXTRA_SEARCH_QUERY = "search_query";
 
+    private static final int PAGE_SIZE = 20;
+    private static final int PRELOAD_THRESHOLD = 5;
+    private static final int PRELOAD_AHEAD = 8;
+
     private ActivitySearchResultsBinding binding;
     private WallpaperAdapter adapter;
+    private GridPreloader preloader;
     private List<Wallpaper> wallpapers;
-    private List<Wallpaper> allWallpapers;
-    private OkHttpClient httpClient;
+    private WallpaperSearch wallpaperSearch;
+    private WallpaperStore store;
     private String accessToken;
     private String searchQuery;
 
@@ -65,6 +62,11 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
     private View emptyState;
     private TextView emptyStateText;
 
+    private boolean isLoading = false;
+    private boolean hasMoreData = true;
+    private int currentPage = 0;
+    private int searchGeneration = 0;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -106,7 +108,7 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
 
         initializeComponents();
         setupRecyclerView();
-        loadAndSearchWallpapers();
+        refreshSearch();
     }
 
     private void setupCollapsingToolbarTitleAnimation(AppBarLayout appBarLayout) {
@@ -138,13 +140,10 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
         emptyStateText = binding.emptyStateText;
 
         wallpapers = new ArrayList<>();
-        allWallpapers = new ArrayList<>();
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
+        wallpaperSearch = new WallpaperSearch(SupabaseGateway.getInstance(this), WallpaperColumns.CARD);
+        store = WallpaperStore.getInstance(this);
 
-        swipeRefreshLayout.setOnRefreshListener(this::loadAndSearchWallpapers);
+        swipeRefreshLayout.setOnRefreshListener(this::refreshSearch);
         swipeRefreshLayout.setColorSchemeResources(
                 com.google.android.material.R.color.material_dynamic_primary10,
                 com.google.android.material.R.color.material_dynamic_primary20,
@@ -153,148 +152,123 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
     }
 
     private void setupRecyclerView() {
-        adapter = new WallpaperAdapter(wallpapers, this);
+        adapter = new WallpaperAdapter(this);
         recyclerView.setAdapter(adapter);
-        recyclerView.setLayoutManager(new androidx.recyclerview.widget.StaggeredGridLayoutManager(2, androidx.recyclerview.widget.StaggeredGridLayoutManager.VERTICAL));
+        recyclerView.setLayoutManager(new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL));
         recyclerView.addItemDecoration(new WallpaperItemDecoration(16));
-    }
-
-    private void loadAndSearchWallpapers() {
-        setLoadingState(true);
-
-        String url = SUPABASE_URL + "/rest/v1/wallpapers?select=*,users(username)&order=created_at.desc";
-
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .addHeader("Content-Type", "application/json")
-                .build();
 
-        httpClient.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                runOnUiThread(() -> {
-                    setLoadingState(false);
-                    showEmptyState(true, "Failed to load wallpapers: " + e.getMessage());
-                    Toast.makeText(SearchResultsActivity.this, "Failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
-            }
+        preloader = new GridPreloader(this, adapter, 0, PRELOAD_AHEAD);
+        preloader.attach(recyclerView);
 
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
-            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                String responseBody = response.body() != null ? response.body().string() : "null";
-                runOnUiThread(() -> {
-                    setLoadingState(false);
-                    if (response.isSuccessful()) {
-                        parseAndSearchWallpapers(responseBody);
-                    } else {
-                        showEmptyState(true, "Failed to load wallpapers. Error: " + response.code());
-                        Toast.makeText(SearchResultsActivity.this, "Failed: " + response.code(), Toast.LENGTH_LONG).show();
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                super.onScrolled(recyclerView, dx, dy);
+
+                if (!isLoading && hasMoreData && dy > 0) {
+                    StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
+                    if (layoutManager != null) {
+                        int[] lastVisibleItems = layoutManager.findLastVisibleItemPositions(null);
+                        int lastVisible = getMaxFromArray(lastVisibleItems);
+
+                        if (lastVisible >= wallpapers.size() - PRELOAD_THRESHOLD) {
+                            loadMoreResults();
+                        }
                     }
-                });
+                }
             }
         });
     }
 
-    private void parseAndSearchWallpapers(String jsonResponse) {
-        try {
-            JSONArray jsonArray = new JSONArray(jsonResponse);
-            allWallpapers.clear();
-            wallpapers.clear();
-
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-
-                Wallpaper wallpaper = new Wallpaper();
-                wallpaper.setId(jsonObject.optString("id"));
-                wallpaper.setName(jsonObject.optString("name"));
-                wallpaper.setDescription(jsonObject.optString("description"));
-                wallpaper.setImageUrl(jsonObject.optString("image_url"));
-                wallpaper.setFileName(jsonObject.optString("file_name"));
-                wallpaper.setCreatedAt(jsonObject.optString("created_at"));
-
-                JSONObject userObj = jsonObject.optJSONObject("users");
-                wallpaper.setUsername(userObj != null ? userObj.optString("username", "Anonymous") : "Anonymous");
-
-                JSONArray tagsArray = jsonObject.optJSONArray("tags");
-                if (tagsArray != null) {
-                    List<String> tags = new ArrayList<>();
-                    for (int j = 0; j < tagsArray.length(); j++) {
-                        tags.add(tagsArray.getString(j));
-                    }
-                    wallpaper.setTags(tags);
-                }
-
-                JSONArray paletteArray = jsonObject.optJSONArray("color_palette");
-                if (paletteArray != null) {
-                    List<String> colorPalette = new ArrayList<>();
-                    for (int j = 0; j < paletteArray.length(); j++) {
-                        colorPalette.add(paletteArray.getString(j));
-                    }
-                    wallpaper.setColorPalette(colorPalette);
-                }
-
-                allWallpapers.add(wallpaper);
-            }
-
-            if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-                filterWallpapers(searchQuery.trim());
-            } else {
-                wallpapers.addAll(allWallpapers);
+    private int getMaxFromArray(int[] array) {
+        int max = array[0];
+        for (int i = 1; i < array.length; i++) {
+            if (array[i] > max) {
+                max = array[i];
             }
+        }
+        return max;
+    }
 
-            adapter.notifyDataSetChanged();
+    private void refreshSearch() {
+        searchGeneration++;
+        currentPage = 0;
+        hasMoreData = true;
+        isLoading = false;
+        loadCachedResults();
+        loadSearchPage(true);
+    }
 
-            if (wallpapers.isEmpty()) {
-                String emptyMessage = "No wallpapers available";
-                showEmptyState(true, emptyMessage);
-            } else {
-                showEmptyState(false, "");
-            }
+    private void loadCachedResults() {
+        String term = searchQuery != null ? searchQuery.trim() : "";
+        if (term.isEmpty()) return;
+
+        int generation = searchGeneration;
+        store.search(term, PAGE_SIZE, cached -> {
+            if (cached.isEmpty()) return;
+            runOnUiThread(() -> {
+                if (generation != searchGeneration || !isLoading || currentPage != 0) return;
+                setLoadingState(false);
+                showSearchResults(cached, true);
+            });
+        });
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing wallpapers", e);
-            Toast.makeText(this, "Error parsing wallpapers: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            showEmptyState(true, "Error loading wallpapers");
+    private void loadMoreResults() {
+        if (!isLoading && hasMoreData) {
+            currentPage++;
+            loadSearchPage(false);
         }
     }
 
-    private void filterWallpapers(String query) {
-        wallpapers.clear();
-        String lowerQuery = query.toLowerCase().trim();
+    private void loadSearchPage(boolean isInitialLoad) {
+        if (isLoading) return;
 
-        for (Wallpaper wallpaper : allWallpapers) {
-            boolean matches = false;
+        isLoading = true;
+        setLoadingState(isInitialLoad && !swipeRefreshLayout.isRefreshing());
+        int generation = searchGeneration;
 
-            if (wallpaper.getName() != null &&
-                    wallpaper.getName().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-
-            if (!matches && wallpaper.getDescription() != null &&
-                    wallpaper.getDescription().toLowerCase().contains(lowerQuery)) {
-                matches = true;
+        wallpaperSearch.search(searchQuery, PAGE_SIZE, currentPage * PAGE_SIZE, new WallpaperListCallback() {
+            @Override
+            public void onWallpapers(List<Wallpaper> page) {
+                store.save(page);
+                runOnUiThread(() -> {
+                    if (generation != searchGeneration) return;
+                    isLoading = false;
+                    setLoadingState(false);
+                    if (page.size() < PAGE_SIZE) {
+                        hasMoreData = false;
+                    }
+                    showSearchResults(page, isInitialLoad);
+                });
             }
 
-            if (!matches && wallpaper.getTags() != null) {
-                for (String tag : wallpaper.getTags()) {
-                    if (tag.toLowerCase().contains(lowerQuery)) {
-                        matches = true;
-                        break;
+            @Override
+            public void onError(String message) {
+                runOnUiThread(() -> {
+                    if (generation != searchGeneration) return;
+                    isLoading = false;
+                    setLoadingState(false);
+                    if (isInitialLoad && wallpapers.isEmpty()) {
+                        showEmptyState(true, "Failed to load wallpapers: " + message);
                     }
-                }
+                    Toast.makeText(SearchResultsActivity.this, "Failed: " + message, Toast.LENGTH_LONG).show();
+                });
             }
+        });
+    }
 
-            if (!matches && wallpaper.getUsername() != null &&
-                    wallpaper.getUsername().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
+    private void showSearchResults(List<Wallpaper> newWallpapers, boolean isInitialLoad) {
+        if (isInitialLoad) {
+            wallpapers.clear();
+        }
+        wallpapers.addAll(newWallpapers);
+        adapter.submitList(new ArrayList<>(wallpapers));
 
-            if (matches) {
-                wallpapers.add(wallpaper);
-            }
+        if (wallpapers.isEmpty()) {
+            showEmptyState(true, "No wallpapers available");
+        } else {
+            showEmptyState(false, "");
         }
     }
 
@@ -306,25 +280,7 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
         toolbarTitle.setText(titleText);
         collapsingToolbar.setTitle(titleText);
 
-        if (!allWallpapers.isEmpty()) {
-            if (newQuery != null && !newQuery.trim().isEmpty()) {
-                filterWallpapers(newQuery.trim());
-            } else {
-                wallpapers.clear();
-                wallpapers.addAll(allWallpapers);
-            }
-
-            adapter.notifyDataSetChanged();
-
-            if (wallpapers.isEmpty()) {
-                String emptyMessage = "No wallpapers available";
-                showEmptyState(true, emptyMessage);
-            } else {
-                showEmptyState(false, "");
-            }
-        } else {
-            loadAndSearchWallpapers();
-        }
+        refreshSearch();
     }
 
     private void setLoadingState(boolean isLoading) {
@@ -355,8 +311,8 @@ public class SearchResultsActivity extends AppCompatActivity implements Wallpape
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
+        if (preloader != null) {
+            preloader.detach();
         }
         binding = null;
     }
@@ -7,15 +7,19 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.relwallpaper.R;
 import com.example.relwallpaper.ui.auth.LoginActivity;
+import com.example.relwallpaper.ui.utils.CacheLedger;
+import com.example.relwallpaper.ui.utils.ImageCacheManager;
 import com.google.android.material.appbar.AppBarLayout;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 public class SettingsActivity extends AppCompatActivity {
 
     private TextView toolbarTitle;
     private CollapsingToolbarLayout collapsingToolbar;
+    private TextView cacheDescription;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -37,6 +41,60 @@ public class SettingsActivity extends AppCompatActivity {
         collapsingToolbar.setTitle("Settings");
         backButton.setOnClickListener(v -> onBackPressed());
         setupCollapsingToolbarTitleAnimation(appBarLayout);
+
+        cacheDescription = findViewById(R.id.cache_description);
+        findViewById(R.id.cache_card).setOnClickListener(v -> showCacheBudgetDialog());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refreshCacheUsage();
+    }
+
+    private void refreshCacheUsage() {
+        ImageCacheManager cacheManager = ImageCacheManager.getInstance(this);
+        long budget = cacheManager.getCacheBudget();
+        cacheManager.getCacheUsage(report -> {
+            if (isFinishing() || isDestroyed()) return;
+            cacheDescription.setText(ImageCacheManager.formatCacheSize(report.totalBytes) + " of "
+                    + ImageCacheManager.formatCacheSize(budget) + " · Images "
+                    + ImageCacheManager.formatCacheSize(bytesOf(report, CacheLedger.Kind.IMAGES)) + ", Network "
+                    + ImageCacheManager.formatCacheSize(bytesOf(report, CacheLedger.Kind.HTTP)) + ", Offline "
+                    + ImageCacheManager.formatCacheSize(bytesOf(report, CacheLedger.Kind.OFFLINE)));
+        });
+    }
+
+    private static long bytesOf(CacheLedger.Report report, CacheLedger.Kind kind) {
+        CacheLedger.Usage usage = report.usages.get(kind);
+        return usage != null ? usage.bytes : 0;
+    }
+
+    private void showCacheBudgetDialog() {
+        ImageCacheManager cacheManager = ImageCacheManager.getInstance(this);
+        long[] options = ImageCacheManager.BUDGET_OPTIONS;
+        String[] labels = new String[options.length];
+        int checked = -1;
+        for (int i = 0; i < options.length; i++) {
+            labels[i] = ImageCacheManager.formatCacheSize(options[i]);
+            if (options[i] == cacheManager.getCacheBudget()) {
+                checked = i;
+            }
+        }
+
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Cache limit")
+                .setSingleChoiceItems(labels, checked, (dialog, which) -> {
+                    cacheManager.setCacheBudget(options[which]);
+                    refreshCacheUsage();
+                    dialog.dismiss();
+                })
+                .setNeutralButton("Clear image cache", (dialog, which) -> {
+                    cacheManager.clearCache();
+                    refreshCacheUsage();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
     private void setupCollapsingToolbarTitleAnimation(AppBarLayout appBarLayout) {
@@ -1,6 +1,9 @@
 package com.example.relwallpaper.ui.pages;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -9,46 +12,50 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.WallpaperColumns;
+import com.example.relwallpaper.data.WallpaperPager;
+import com.example.relwallpaper.data.WallpaperStore;
+import com.example.relwallpaper.data.WallpaperTags;
 import com.example.relwallpaper.databinding.ActivityTaggedWallpaperBinding;
 import com.example.relwallpaper.ui.home.WallpaperItemDecoration;
 import com.example.relwallpaper.ui.home.adapter.WallpaperAdapter;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.example.relwallpaper.ui.utils.CollectionDownloads;
+import com.example.relwallpaper.ui.utils.GridPreloader;
 import com.google.android.material.appbar.AppBarLayout;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.loadingindicator.LoadingIndicator;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class TaggedWallpapersActivity extends AppCompatActivity implements WallpaperAdapter.OnWallpaperClickListener {
 
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "TaggedWallpapersAct";
     public static final String EXTRA_TAG_NAME = "tag_name";
 
+    private static final int PAGE_SIZE = 20;
+    private static final int PRELOAD_THRESHOLD = 5;
+    private static final int PRELOAD_AHEAD = 8;
+    private static final int PERMISSION_REQUEST_CODE_STORAGE = 101;
+    private static final int PERMISSION_REQUEST_CODE_NOTIFICATIONS = 103;
+
     private ActivityTaggedWallpaperBinding binding;
     private WallpaperAdapter adapter;
+    private GridPreloader preloader;
     private List<Wallpaper> wallpapers;
-    private OkHttpClient httpClient;
+    private WallpaperPager pager;
+    private WallpaperStore store;
     private String accessToken;
     private String tagName;
 
@@ -57,12 +64,14 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
     private AppBarLayout appBarLayout;
     private MaterialButton backButton;
     private TextView toolbarTitle;
+    private MaterialButton downloadAllButton;
 
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
     private LoadingIndicator progressIndicator;
     private View emptyState;
 
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -71,7 +80,7 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
         setContentView(binding.getRoot());
 
         if (getIntent() != null) {
-            tagName = getIntent().getStringExtra(EXTRA_TAG_NAME);
+            tagName = WallpaperTags.normalize(getIntent().getStringExtra(EXTRA_TAG_NAME));
         }
 
         toolbar = findViewById(R.id.toolbar);
@@ -79,6 +88,7 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
         appBarLayout = findViewById(R.id.app_bar_layout);
         backButton = findViewById(R.id.back_button_tw);
         toolbarTitle = findViewById(R.id.toolbar_title_tw);
+        downloadAllButton = findViewById(R.id.download_all_button_tw);
 
         toolbarTitle.setText(tagName != null ? tagName + " Wallpapers" : "Wallpapers");
 
@@ -103,7 +113,58 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
 
         initializeComponents();
         setupRecyclerView();
-        loadWallpapersByTag();
+        setupDownloadAll();
+        refreshWallpapers();
+    }
+
+    private void setupDownloadAll() {
+        CollectionDownloads collectionDownloads = CollectionDownloads.getInstance(this);
+        downloadAllButton.setOnClickListener(v -> {
+            if (collectionDownloads.isRunning(tagName)) {
+                collectionDownloads.cancel(tagName);
+                Toast.makeText(this, "Collection download cancelled", Toast.LENGTH_SHORT).show();
+            } else {
+                downloadCollection();
+            }
+        });
+        collectionDownloads.getProgress().observe(this, batches -> {
+            CollectionDownloads.Progress current = null;
+            for (CollectionDownloads.Progress batch : batches) {
+                if (batch.tag.equals(tagName)) {
+                    current = batch;
+                }
+            }
+            downloadAllButton.setIconResource(current != null ? R.drawable.ic_baseline_close_24 : R.drawable.ic_baseline_download_24);
+            downloadAllButton.setContentDescription(current != null
+                    ? "Cancel collection download (" + current.completed + " saved)"
+                    : "Download collection");
+        });
+    }
+
+    private void downloadCollection() {
+        if (tagName == null || tagName.isEmpty()) return;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q && ContextCompat.checkSelfPermission(this, Manifest.permission.WRITE_EXTERNAL_STORAGE) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.WRITE_EXTERNAL_STORAGE}, PERMISSION_REQUEST_CODE_STORAGE);
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS}, PERMISSION_REQUEST_CODE_NOTIFICATIONS);
+        }
+
+        boolean started = CollectionDownloads.getInstance(this).start(tagName);
+        Toast.makeText(this, started ? "Downloading " + tagName + " collection" : "Already downloading", Toast.LENGTH_SHORT).show();
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == PERMISSION_REQUEST_CODE_STORAGE) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                downloadCollection();
+            } else {
+                Toast.makeText(this, "Storage permission required to download wallpapers", Toast.LENGTH_SHORT).show();
+            }
+        }
     }
 
     private void setupCollapsingToolbarTitleAnimation(AppBarLayout appBarLayout) {
@@ -131,12 +192,13 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
         emptyState = binding.emptyState;
 
         wallpapers = new ArrayList<>();
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
+        SupabaseGateway gateway = SupabaseGateway.getInstance(this);
+        store = WallpaperStore.getInstance(this);
+        pager = new WallpaperPager(gateway, PAGE_SIZE, () -> WallpaperTags.applyFilter(
+                gateway.from("wallpapers").select(WallpaperColumns.CARD), "tags", tagName))
+                .saveTo(store, false);
 
-        swipeRefreshLayout.setOnRefreshListener(this::loadWallpapersByTag);
+        swipeRefreshLayout.setOnRefreshListener(this::refreshWallpapers);
         swipeRefreshLayout.setColorSchemeResources(
                 com.google.android.material.R.color.material_dynamic_primary10,
                 com.google.android.material.R.color.material_dynamic_primary20,
@@ -145,117 +207,109 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
     }
 
     private void setupRecyclerView() {
-        adapter = new WallpaperAdapter(wallpapers, this);
+        adapter = new WallpaperAdapter(this);
         recyclerView.setAdapter(adapter);
-        recyclerView.setLayoutManager(new androidx.recyclerview.widget.StaggeredGridLayoutManager(2, androidx.recyclerview.widget.StaggeredGridLayoutManager.VERTICAL));
+        recyclerView.setLayoutManager(new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL));
         recyclerView.addItemDecoration(new WallpaperItemDecoration(16));
+
+        preloader = new GridPreloader(this, adapter, 0, PRELOAD_AHEAD);
+        preloader.attach(recyclerView);
+
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                super.onScrolled(recyclerView, dx, dy);
+
+                if (!pager.isLoading() && pager.hasMore() && dy > 0) {
+                    StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
+                    if (layoutManager != null) {
+                        int[] lastVisibleItems = layoutManager.findLastVisibleItemPositions(null);
+                        int lastVisible = getMaxFromArray(lastVisibleItems);
+
+                        if (lastVisible >= wallpapers.size() - PRELOAD_THRESHOLD) {
+                            loadMoreWallpapers();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private int getMaxFromArray(int[] array) {
+        int max = array[0];
+        for (int i = 1; i < array.length; i++) {
+            if (array[i] > max) {
+                max = array[i];
+            }
+        }
+        return max;
+    }
+
+    private void refreshWallpapers() {
+        pager.reset();
+        if (wallpapers.isEmpty() && tagName != null && !tagName.isEmpty()) {
+            loadCachedWallpapers();
+        }
+        loadWallpapersByTag(true);
     }
 
-    private void loadWallpapersByTag() {
+    private void loadCachedWallpapers() {
+        store.byTag(tagName, PAGE_SIZE, cached -> {
+            if (cached.isEmpty()) return;
+            runOnUiThread(() -> {
+                if (isFinishing() || !wallpapers.isEmpty() || !pager.isFirstPage()) return;
+                setLoadingState(false);
+                parseWallpapers(cached, true);
+            });
+        });
+    }
+
+    private void loadMoreWallpapers() {
+        if (!pager.isLoading() && pager.hasMore()) {
+            loadWallpapersByTag(false);
+        }
+    }
+
+    private void loadWallpapersByTag(boolean isInitialLoad) {
         if (tagName == null || tagName.isEmpty()) {
             Log.e(TAG, "Tag name is null or empty.");
             Toast.makeText(this, "Error: No tag specified.", Toast.LENGTH_SHORT).show();
             setLoadingState(false);
             return;
         }
+        if (pager.isLoading()) return;
 
-        setLoadingState(true);
-
-        String url = SUPABASE_URL + "/rest/v1/wallpapers?select=*,users(username)&order=created_at.desc";
-
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .addHeader("Content-Type", "application/json")
-                .build();
+        setLoadingState(isInitialLoad && wallpapers.isEmpty() && !swipeRefreshLayout.isRefreshing());
 
-        httpClient.newCall(request).enqueue(new Callback() {
+        pager.loadNext(new WallpaperPager.PageCallback() {
             @Override
-            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+            public void onPage(List<Wallpaper> page, boolean firstPage) {
                 runOnUiThread(() -> {
                     setLoadingState(false);
-                    showEmptyState(true);
-                    Toast.makeText(TaggedWallpapersActivity.this, "Failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    parseWallpapers(page, firstPage);
                 });
             }
 
             @Override
-            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                String responseBody = response.body() != null ? response.body().string() : "null";
+            public void onError(String message) {
                 runOnUiThread(() -> {
                     setLoadingState(false);
-                    if (response.isSuccessful()) {
-                        parseAndFilterWallpapers(responseBody);
-                    } else {
+                    if (isInitialLoad && wallpapers.isEmpty()) {
                         showEmptyState(true);
-                        Toast.makeText(TaggedWallpapersActivity.this, "Failed: " + response.code(), Toast.LENGTH_LONG).show();
                     }
+                    Toast.makeText(TaggedWallpapersActivity.this, "Failed: " + message, Toast.LENGTH_LONG).show();
                 });
             }
         });
     }
 
-    private void parseAndFilterWallpapers(String jsonResponse) {
-        try {
-            JSONArray jsonArray = new JSONArray(jsonResponse);
+    private void parseWallpapers(List<Wallpaper> newWallpapers, boolean isInitialLoad) {
+        if (isInitialLoad) {
             wallpapers.clear();
-
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-
-                JSONArray tagsArray = jsonObject.optJSONArray("tags");
-                boolean hasTag = false;
-                if (tagsArray != null) {
-                    for (int j = 0; j < tagsArray.length(); j++) {
-                        if (tagsArray.getString(j).equalsIgnoreCase(tagName)) {
-                            hasTag = true;
-                            break;
-                        }
-                    }
-                }
-
-                if (hasTag) {
-                    Wallpaper wallpaper = new Wallpaper();
-                    wallpaper.setId(jsonObject.optString("id"));
-                    wallpaper.setName(jsonObject.optString("name"));
-                    wallpaper.setDescription(jsonObject.optString("description"));
-                    wallpaper.setImageUrl(jsonObject.optString("image_url"));
-                    wallpaper.setFileName(jsonObject.optString("file_name"));
-                    wallpaper.setCreatedAt(jsonObject.optString("created_at"));
-
-                    JSONObject userObj = jsonObject.optJSONObject("users");
-                    wallpaper.setUsername(userObj != null ? userObj.optString("username", "Anonymous") : "Anonymous");
-
-                    if (tagsArray != null) {
-                        List<String> tags = new ArrayList<>();
-                        for (int j = 0; j < tagsArray.length(); j++) {
-                            tags.add(tagsArray.getString(j));
-                        }
-                        wallpaper.setTags(tags);
-                    }
-
-                    JSONArray paletteArray = jsonObject.optJSONArray("color_palette");
-                    if (paletteArray != null) {
-                        List<String> colorPalette = new ArrayList<>();
-                        for (int j = 0; j < paletteArray.length(); j++) {
-                            colorPalette.add(paletteArray.getString(j));
-                        }
-                        wallpaper.setColorPalette(colorPalette);
-                    }
-
-                    wallpapers.add(wallpaper);
-                }
-            }
-
-            adapter.notifyDataSetChanged();
-            showEmptyState(wallpapers.isEmpty());
-
-        } catch (Exception e) {
-            Toast.makeText(this, "Error parsing: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            showEmptyState(true);
         }
+        wallpapers.addAll(newWallpapers);
+        adapter.submitList(new ArrayList<>(wallpapers));
+        showEmptyState(wallpapers.isEmpty());
     }
 
     private void setLoadingState(boolean isLoading) {
@@ -282,8 +336,8 @@ public class TaggedWallpapersActivity extends AppCompatActivity implements Wallp
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
+        if (preloader != null) {
+            preloader.detach();
         }
         binding = null;
     }
@@ -21,11 +21,15 @@ import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.SupabaseQuery;
+import com.example.relwallpaper.data.WallpaperColumns;
+import com.example.relwallpaper.data.WallpaperPager;
+import com.example.relwallpaper.data.WallpaperStore;
 import com.example.relwallpaper.ui.auth.LoginActivity;
 import com.example.relwallpaper.ui.home.WallpaperItemDecoration;
+import com.example.relwallpaper.ui.utils.Thumbnail;
 import com.google.android.material.appbar.AppBarLayout;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
 import com.google.android.material.appbar.MaterialToolbar;
@@ -33,7 +37,6 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.loadingindicator.LoadingIndicator;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
@@ -42,20 +45,15 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Callback;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
 
 public class UploadPageActivity extends AppCompatActivity {
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "UploadPageActivity";
+    private static final int PAGE_SIZE = 20;
+    private static final int PRELOAD_THRESHOLD = 5;
 
     private RecyclerView wallpaperRecyclerView;
     private WallpaperAdapter wallpaperAdapter;
@@ -70,7 +68,8 @@ public class UploadPageActivity extends AppCompatActivity {
     private MaterialButton backButton;
     private TextView toolbarTitle;
 
-    private OkHttpClient httpClient;
+    private SupabaseGateway gateway;
+    private WallpaperPager pager;
     private String accessToken;
     private String currentUserId;
     private List<Wallpaper> wallpaperList;
@@ -91,11 +90,10 @@ public class UploadPageActivity extends AppCompatActivity {
             return;
         }
 
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        gateway = SupabaseGateway.getInstance(this);
+        pager = new WallpaperPager(gateway, PAGE_SIZE, () -> gateway.from("wallpapers")
+                .select(WallpaperColumns.UPLOAD)
+                .eq("user_id", currentUserId));
 
         initializeViews();
         setupToolbar();
@@ -125,6 +123,25 @@ public class UploadPageActivity extends AppCompatActivity {
         wallpaperRecyclerView.setAdapter(wallpaperAdapter);
 
         wallpaperRecyclerView.addItemDecoration(new WallpaperItemDecoration(16));
+
+        wallpaperRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                super.onScrolled(recyclerView, dx, dy);
+
+                if (!pager.isLoading() && pager.hasMore() && dy > 0) {
+                    int[] lastVisibleItems = layoutManager.findLastVisibleItemPositions(null);
+                    int lastVisible = lastVisibleItems[0];
+                    for (int position : lastVisibleItems) {
+                        lastVisible = Math.max(lastVisible, position);
+                    }
+
+                    if (lastVisible >= wallpaperList.size() - PRELOAD_THRESHOLD) {
+                        loadNextPage();
+                    }
+                }
+            }
+        });
     }
 
     private void setupToolbar() {
@@ -173,75 +190,58 @@ public class UploadPageActivity extends AppCompatActivity {
     }
 
     private void loadUserWallpapers() {
-        setLoadingState(true);
+        pager.reset();
+        loadNextPage();
+    }
 
-        String url = SUPABASE_URL + "/rest/v1/wallpapers?user_id=eq." + currentUserId + "&order=created_at.desc";
+    private void loadNextPage() {
+        if (pager.isLoading() || !pager.hasMore()) return;
 
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .addHeader("Content-Type", "application/json")
-                .build();
+        setLoadingState(true);
 
-        httpClient.newCall(request).enqueue(new Callback() {
+        pager.loadNext(new WallpaperPager.PageCallback() {
             @Override
-            public void onFailure(Call call, IOException e) {
+            public void onPage(List<com.example.relwallpaper.ui.home.model.Wallpaper> page, boolean firstPage) {
                 runOnUiThread(() -> {
                     setLoadingState(false);
-                    showError("Failed to load wallpapers: " + e.getMessage());
+                    parseWallpapers(page, firstPage);
                 });
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                String responseBody = response.body() != null ? response.body().string() : "null";
-
+            public void onError(String message) {
                 runOnUiThread(() -> {
                     setLoadingState(false);
-                    if (response.isSuccessful()) {
-                        parseWallpapers(responseBody);
-                    } else {
-                        showError("Failed to load wallpapers: " + response.code());
-                    }
+                    showError("Failed to load wallpapers: " + message);
                 });
             }
         });
     }
 
-    private void parseWallpapers(String jsonResponse) {
-        try {
-            JSONArray wallpapers = new JSONArray(jsonResponse);
+    private void parseWallpapers(List<com.example.relwallpaper.ui.home.model.Wallpaper> page, boolean firstPage) {
+        if (firstPage) {
             wallpaperList.clear();
+        }
+        int previousSize = wallpaperList.size();
+
+        for (com.example.relwallpaper.ui.home.model.Wallpaper item : page) {
+            Wallpaper wallpaper = new Wallpaper();
+            wallpaper.id = item.getId();
+            wallpaper.name = item.getName();
+            wallpaper.description = item.getDescription();
+            wallpaper.imageUrl = item.getImageUrl();
+            wallpaper.fileName = item.getFileName();
+            wallpaper.createdAt = item.getCreatedAt();
+            wallpaper.tags = item.getTags();
+            wallpaperList.add(wallpaper);
+        }
 
-            for (int i = 0; i < wallpapers.length(); i++) {
-                JSONObject wallpaperObj = wallpapers.getJSONObject(i);
-                Wallpaper wallpaper = new Wallpaper();
-                wallpaper.id = wallpaperObj.optString("id");
-                wallpaper.name = wallpaperObj.optString("name");
-                wallpaper.description = wallpaperObj.optString("description");
-                wallpaper.imageUrl = wallpaperObj.optString("image_url");
-                wallpaper.fileName = wallpaperObj.optString("file_name");
-                wallpaper.createdAt = wallpaperObj.optString("created_at");
-
-                JSONArray tagsArray = wallpaperObj.optJSONArray("tags");
-                if (tagsArray != null) {
-                    wallpaper.tags = new ArrayList<>();
-                    for (int j = 0; j < tagsArray.length(); j++) {
-                        wallpaper.tags.add(tagsArray.getString(j));
-                    }
-                }
-
-                wallpaperList.add(wallpaper);
-            }
-
+        if (firstPage) {
             wallpaperAdapter.notifyDataSetChanged();
-            updateEmptyState();
-
-        } catch (Exception e) {
-            showError("Error parsing wallpapers");
+        } else {
+            wallpaperAdapter.notifyItemRangeInserted(previousSize, page.size());
         }
+        updateEmptyState();
     }
 
     private void updateEmptyState() {
@@ -271,16 +271,9 @@ public class UploadPageActivity extends AppCompatActivity {
     private void performDeleteWallpaper(Wallpaper wallpaper, int position) {
         setLoadingState(true);
 
-        String deleteUrl = SUPABASE_URL + "/rest/v1/wallpapers?id=eq." + wallpaper.id;
-
-        Request deleteRequest = new Request.Builder()
-                .url(deleteUrl)
-                .delete()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .build();
+        SupabaseQuery query = gateway.from("wallpapers").eq("id", wallpaper.id);
 
-        httpClient.newCall(deleteRequest).enqueue(new Callback() {
+        gateway.delete(query, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 runOnUiThread(() -> {
@@ -294,6 +287,7 @@ public class UploadPageActivity extends AppCompatActivity {
                 String responseBody = response.body() != null ? response.body().string() : "null";
 
                 if (response.isSuccessful()) {
+                    WallpaperStore.getInstance(UploadPageActivity.this).delete(wallpaper.id);
                     deleteFromStorage(wallpaper.fileName, position);
                 } else {
                     runOnUiThread(() -> {
@@ -306,16 +300,7 @@ public class UploadPageActivity extends AppCompatActivity {
     }
 
     private void deleteFromStorage(String fileName, int position) {
-        String storageDeleteUrl = SUPABASE_URL + "/storage/v1/object/wallpapers/" + fileName;
-
-        Request storageDeleteRequest = new Request.Builder()
-                .url(storageDeleteUrl)
-                .delete()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .build();
-
-        httpClient.newCall(storageDeleteRequest).enqueue(new Callback() {
+        gateway.deleteObject("wallpapers", fileName, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 runOnUiThread(() -> {
@@ -404,14 +389,6 @@ public class UploadPageActivity extends AppCompatActivity {
         }
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-        }
-    }
-
     private static class Wallpaper {
         String id;
         String name;
@@ -486,8 +463,7 @@ public class UploadPageActivity extends AppCompatActivity {
                 }
 
                 Glide.with(itemView.getContext())
-                        .load(wallpaper.imageUrl)
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
+                        .load(Thumbnail.of(wallpaper.imageUrl))
                         .centerCrop()
                         .into(wallpaperImage);
 
@@ -1,10 +1,8 @@
 package com.example.relwallpaper.ui.pages;
 
 import android.Manifest;
-import android.app.WallpaperManager;
 import android.content.ClipData;
 import android.content.ClipboardManager;
-import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
@@ -13,11 +11,8 @@ import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.Typeface;
 import android.graphics.drawable.GradientDrawable;
-import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
-import android.provider.MediaStore;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -30,23 +25,34 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.ColorUtils;
-import androidx.palette.graphics.Palette;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.engine.GlideException;
 import com.bumptech.glide.request.RequestListener;
-import com.bumptech.glide.request.target.CustomTarget;
 import com.bumptech.glide.request.target.Target;
-import com.bumptech.glide.request.transition.Transition;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.SupabaseQuery;
+import com.example.relwallpaper.data.WallpaperColumns;
+import com.example.relwallpaper.data.WallpaperListCallback;
+import com.example.relwallpaper.data.WallpaperStore;
+import com.example.relwallpaper.ui.RelWallpaperGlideModule;
 import com.example.relwallpaper.ui.component.WallpaperOptionBottomSheet;
 import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.example.relwallpaper.ui.utils.ColorHistogram;
+import com.example.relwallpaper.ui.utils.ImageCacheManager;
+import com.example.relwallpaper.ui.utils.QuantizedPalette;
+import com.example.relwallpaper.ui.utils.Thumbnail;
+import com.example.relwallpaper.ui.utils.WallpaperApplier;
+import com.example.relwallpaper.ui.utils.WallpaperDownloads;
+import com.example.relwallpaper.ui.utils.WuQuantizer;
 import com.google.android.flexbox.FlexboxLayout;
 import com.google.android.material.appbar.CollapsingToolbarLayout;
 import com.google.android.material.appbar.MaterialToolbar;
@@ -54,13 +60,11 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -70,6 +74,10 @@ public class WallpaperDetailActivity extends AppCompatActivity {
     private static final String TAG = "WallpaperDetailActivity";
     private static final int PERMISSION_REQUEST_CODE_STORAGE = 101;
     private static final int PERMISSION_REQUEST_CODE_WALLPAPER = 102;
+    private static final int PERMISSION_REQUEST_CODE_NOTIFICATIONS = 103;
+    private static final int THEME_SAMPLE_SIZE = 150;
+    private static final int THEME_PALETTE_SIZE = 8;
+    private static final int PREVIEW_SCALE = 3;
 
     private Wallpaper currentWallpaper;
     private ImageView detailWallpaperImage;
@@ -84,8 +92,10 @@ public class WallpaperDetailActivity extends AppCompatActivity {
     private MaterialToolbar toolbar;
     private LinearLayout bottomSheet;
     private Integer pendingWallpaperFlag = null;
+    private WallpaperDownloads.State lastDownloadState;
     private ExecutorService executorService = Executors.newSingleThreadExecutor();
 
+    private boolean themeExtracted;
     private int dominantColor = -1;
     private int primaryColor = -1;
     private int onPrimaryColor = -1;
@@ -109,6 +119,8 @@ public class WallpaperDetailActivity extends AppCompatActivity {
         if (currentWallpaper != null) {
             displayWallpaperDetails();
             setupClickListeners();
+            observeDownload();
+            loadFullDetails();
         } else {
             Toast.makeText(this, "Wallpaper details not found.", Toast.LENGTH_SHORT).show();
             finish();
@@ -181,6 +193,8 @@ public class WallpaperDetailActivity extends AppCompatActivity {
         Glide.with(this)
                 .asBitmap()
                 .load(currentWallpaper.getImageUrl())
+                .apply(RelWallpaperGlideModule.FULL_QUALITY)
+                .thumbnail(buildPreviewRequest())
                 .listener(new RequestListener<Bitmap>() {
                     @Override
                     public boolean onLoadFailed(@androidx.annotation.Nullable GlideException e, Object model, Target<Bitmap> target, boolean isFirstResource) {
@@ -192,12 +206,13 @@ public class WallpaperDetailActivity extends AppCompatActivity {
                     public boolean onResourceReady(Bitmap resource, Object model, Target<Bitmap> target, DataSource dataSource, boolean isFirstResource) {
                         btnSetWallpaper.setEnabled(true);
                         btnDownloadWallpaper.setEnabled(true);
-                        extractDominantColorAndApplyTheme(resource);
+                        if (!themeExtracted) {
+                            extractDominantColorAndApplyTheme(resource);
+                        }
                         return false;
                     }
                 })
                 .placeholder(R.drawable.placeholder_image)
-                .error(R.drawable.error_image)
                 .into(detailWallpaperImage);
 
         detailWallpaperName.setText(currentWallpaper.getName());
@@ -209,26 +224,111 @@ public class WallpaperDetailActivity extends AppCompatActivity {
         setupColorPalette();
     }
 
-    private void extractDominantColorAndApplyTheme(Bitmap bitmap) {
-        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, 150, 150, false);
+    private RequestBuilder<Bitmap> buildPreviewRequest() {
+        String imageUrl = currentWallpaper.getImageUrl();
+        RequestListener<Bitmap> themeListener = new RequestListener<Bitmap>() {
+            @Override
+            public boolean onLoadFailed(@androidx.annotation.Nullable GlideException e, Object model, Target<Bitmap> target, boolean isFirstResource) {
+                return false;
+            }
 
-        Palette.from(scaledBitmap).generate(palette -> {
-            if (palette != null) {
-                Palette.Swatch vibrantSwatch = palette.getVibrantSwatch();
-                Palette.Swatch dominantSwatch = palette.getDominantSwatch();
-                Palette.Swatch mutedSwatch = palette.getMutedSwatch();
+            @Override
+            public boolean onResourceReady(Bitmap resource, Object model, Target<Bitmap> target, DataSource dataSource, boolean isFirstResource) {
+                if (!themeExtracted) {
+                    extractDominantColorAndApplyTheme(resource);
+                }
+                return false;
+            }
+        };
+        int width = getResources().getDisplayMetrics().widthPixels / PREVIEW_SCALE;
+        float ratio = currentWallpaper.getAspectRatio() > 0 ? currentWallpaper.getAspectRatio() : 16f / 9f;
+        RequestBuilder<Bitmap> network = Glide.with(this).asBitmap().load(Thumbnail.of(imageUrl))
+                .override(width, Math.round(width * ratio))
+                .priority(Priority.IMMEDIATE)
+                .listener(themeListener);
+
+        int[] displayedSize = ImageCacheManager.getInstance(this).getDisplayedSize(imageUrl);
+        if (displayedSize == null) {
+            return network;
+        }
+        return Glide.with(this).asBitmap().load(Thumbnail.of(imageUrl))
+                .override(displayedSize[0], displayedSize[1])
+                .onlyRetrieveFromCache(true)
+                .error(network)
+                .listener(themeListener);
+    }
 
-                Palette.Swatch selectedSwatch = vibrantSwatch != null ? vibrantSwatch :
-                        dominantSwatch != null ? dominantSwatch : mutedSwatch;
+    private void loadFullDetails() {
+        if (currentWallpaper.getId() == null || currentWallpaper.getId().isEmpty()) return;
+
+        SupabaseGateway gateway = SupabaseGateway.getInstance(this);
+        SupabaseQuery query = gateway.from("wallpapers")
+                .select(WallpaperColumns.DETAIL)
+                .eq("id", currentWallpaper.getId())
+                .limit(1);
+
+        gateway.select(query, new WallpaperListCallback() {
+            @Override
+            public void onWallpapers(List<Wallpaper> wallpapers) {
+                if (wallpapers.isEmpty()) return;
+                WallpaperStore.getInstance(WallpaperDetailActivity.this).save(wallpapers);
+                Wallpaper details = wallpapers.get(0);
+                runOnUiThread(() -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    applyFullDetails(details);
+                });
+            }
 
-                if (selectedSwatch != null) {
-                    dominantColor = selectedSwatch.getRgb();
-                    applyDynamicTheme(dominantColor);
-                }
+            @Override
+            public void onError(String message) {
+                Log.w(TAG, "Failed to load wallpaper details: " + message);
             }
         });
     }
 
+    private void applyFullDetails(Wallpaper details) {
+        if (details.getName() != null) {
+            currentWallpaper.setName(details.getName());
+        }
+        if (details.getCreatedAt() != null) {
+            currentWallpaper.setCreatedAt(details.getCreatedAt());
+        }
+        if (details.getUsername() != null) {
+            currentWallpaper.setUsername(details.getUsername());
+        }
+        currentWallpaper.setDescription(details.getDescription());
+        currentWallpaper.setFileName(details.getFileName());
+        currentWallpaper.setTags(details.getTags());
+        currentWallpaper.setColorPalette(details.getColorPalette());
+
+        detailWallpaperName.setText(currentWallpaper.getName());
+        detailWallpaperUsername.setText(currentWallpaper.getFormattedUsername());
+        detailWallpaperDescription.setText(currentWallpaper.getDescription());
+        detailWallpaperDate.setText(formatDate(currentWallpaper.getCreatedAt()));
+        setupTags();
+        setupColorPalette();
+    }
+
+    private void extractDominantColorAndApplyTheme(Bitmap bitmap) {
+        themeExtracted = true;
+        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, THEME_SAMPLE_SIZE, THEME_SAMPLE_SIZE, false);
+        int[] pixels = new int[THEME_SAMPLE_SIZE * THEME_SAMPLE_SIZE];
+        scaledBitmap.getPixels(pixels, 0, THEME_SAMPLE_SIZE, 0, 0, THEME_SAMPLE_SIZE, THEME_SAMPLE_SIZE);
+        if (executorService.isShutdown()) return;
+
+        executorService.execute(() -> {
+            QuantizedPalette palette = new WuQuantizer()
+                    .quantize(ColorHistogram.of(pixels, pixels.length), THEME_PALETTE_SIZE);
+            if (palette.size() == 0) return;
+            int themeColor = palette.getThemeColor(Color.TRANSPARENT);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                dominantColor = themeColor;
+                applyDynamicTheme(dominantColor);
+            });
+        });
+    }
+
     private boolean isNightModeActive() {
         int nightModeFlags = getResources().getConfiguration().uiMode & android.content.res.Configuration.UI_MODE_NIGHT_MASK;
         return nightModeFlags == android.content.res.Configuration.UI_MODE_NIGHT_YES;
@@ -500,35 +600,21 @@ public class WallpaperDetailActivity extends AppCompatActivity {
         btnSetWallpaper.setEnabled(false);
         btnDownloadWallpaper.setEnabled(false);
 
-        Glide.with(this)
-                .asBitmap()
-                .load(currentWallpaper.getImageUrl())
-                .into(new CustomTarget<Bitmap>() {
-                    @Override
-                    public void onResourceReady(@NonNull Bitmap resource, @androidx.annotation.Nullable Transition<? super Bitmap> transition) {
-                        executorService.execute(() -> {
-                            try {
-                                WallpaperManager wallpaperManager = WallpaperManager.getInstance(getApplicationContext());
-                                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-                                    wallpaperManager.setBitmap(resource, null, true, flag);
-                                } else {
-                                    wallpaperManager.setBitmap(resource);
-                                }
-                                runOnUiThread(() -> Toast.makeText(WallpaperDetailActivity.this, "Wallpaper set successfully!", Toast.LENGTH_SHORT).show());
-                            } catch (IOException e) {
-                                runOnUiThread(() -> Toast.makeText(WallpaperDetailActivity.this, "Error setting wallpaper: " + e.getMessage(), Toast.LENGTH_LONG).show());
-                            } finally {
-                                runOnUiThread(() -> {
-                                    btnSetWallpaper.setEnabled(true);
-                                    btnDownloadWallpaper.setEnabled(true);
-                                });
-                            }
-                        });
-                    }
-
-                    @Override
-                    public void onLoadCleared(@androidx.annotation.Nullable android.graphics.drawable.Drawable placeholder) {}
+        String imageUrl = currentWallpaper.getImageUrl();
+        executorService.execute(() -> {
+            try {
+                new WallpaperApplier(getApplicationContext()).apply(imageUrl, flag);
+                runOnUiThread(() -> Toast.makeText(WallpaperDetailActivity.this, "Wallpaper set successfully!", Toast.LENGTH_SHORT).show());
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Failed to set wallpaper", e);
+                runOnUiThread(() -> Toast.makeText(WallpaperDetailActivity.this, "Error setting wallpaper: " + e.getMessage(), Toast.LENGTH_LONG).show());
+            } finally {
+                runOnUiThread(() -> {
+                    btnSetWallpaper.setEnabled(true);
+                    btnDownloadWallpaper.setEnabled(true);
                 });
+            }
+        });
     }
 
     private void downloadWallpaper() {
@@ -541,77 +627,47 @@ public class WallpaperDetailActivity extends AppCompatActivity {
             return;
         }
 
-        btnSetWallpaper.setEnabled(false);
-        btnDownloadWallpaper.setEnabled(false);
-
-        Glide.with(this)
-                .asBitmap()
-                .load(currentWallpaper.getImageUrl())
-                .into(new CustomTarget<Bitmap>() {
-                    @Override
-                    public void onLoadFailed(@androidx.annotation.Nullable android.graphics.drawable.Drawable errorDrawable) {
-                        runOnUiThread(() -> {
-                            Toast.makeText(WallpaperDetailActivity.this, "Failed to load image for download.", Toast.LENGTH_SHORT).show();
-                            btnSetWallpaper.setEnabled(true);
-                            btnDownloadWallpaper.setEnabled(true);
-                        });
-                    }
-
-                    @Override
-                    public void onResourceReady(@NonNull Bitmap resource, @androidx.annotation.Nullable Transition<? super Bitmap> transition) {
-                        executorService.execute(() -> {
-                            boolean saved = saveBitmapToGallery(resource, currentWallpaper.getName());
-                            runOnUiThread(() -> {
-                                if (saved) {
-                                    Toast.makeText(WallpaperDetailActivity.this, "Wallpaper downloaded to gallery!", Toast.LENGTH_SHORT).show();
-                                } else {
-                                    Toast.makeText(WallpaperDetailActivity.this, "Failed to download wallpaper.", Toast.LENGTH_SHORT).show();
-                                }
-                                btnSetWallpaper.setEnabled(true);
-                                btnDownloadWallpaper.setEnabled(true);
-                            });
-                        });
-                    }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS}, PERMISSION_REQUEST_CODE_NOTIFICATIONS);
+        }
 
-                    @Override
-                    public void onLoadCleared(@androidx.annotation.Nullable android.graphics.drawable.Drawable placeholder) {}
-                });
+        boolean queued = WallpaperDownloads.getInstance(this)
+                .enqueue(currentWallpaper.getId(), currentWallpaper.getImageUrl(), currentWallpaper.getName());
+        Toast.makeText(this, queued ? "Download started" : "Already downloading", Toast.LENGTH_SHORT).show();
     }
 
-    private boolean saveBitmapToGallery(Bitmap bitmap, String name) {
-        String filename = name.replaceAll("[^a-zA-Z0-9.-]", "_") + "_" + System.currentTimeMillis() + ".jpg";
-        ContentValues values = new ContentValues();
-        values.put(MediaStore.Images.Media.DISPLAY_NAME, filename);
-        values.put(MediaStore.Images.Media.MIME_TYPE, "image/jpeg");
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            values.put(MediaStore.Images.Media.RELATIVE_PATH, Environment.DIRECTORY_PICTURES + File.separator + "RelWallpaper");
-            values.put(MediaStore.Images.Media.IS_PENDING, 1);
-        } else {
-            File directory = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_PICTURES), "RelWallpaper");
-            if (!directory.exists() && !directory.mkdirs()) {
-                return false;
+    private void observeDownload() {
+        WallpaperDownloads.getInstance(this).getDownloads().observe(this, downloads -> {
+            String key = currentWallpaper.getId() != null && !currentWallpaper.getId().isEmpty()
+                    ? currentWallpaper.getId() : currentWallpaper.getImageUrl();
+            WallpaperDownloads.Download download = null;
+            for (WallpaperDownloads.Download candidate : downloads) {
+                if (candidate.id.equals(key)) {
+                    download = candidate;
+                }
             }
-            values.put(MediaStore.Images.Media.DATA, new File(directory, filename).getAbsolutePath());
-        }
-
-        Uri uri = getContentResolver().insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
-        if (uri == null) {
-            return false;
-        }
-
-        try (OutputStream out = getContentResolver().openOutputStream(uri)) {
-            if (out == null) return false;
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                values.clear();
-                values.put(MediaStore.Images.Media.IS_PENDING, 0);
-                getContentResolver().update(uri, values, null, null);
+            WallpaperDownloads.State state = download != null ? download.state : null;
+            if (download != null && download.isActive()) {
+                int percent = download.getProgressPercent();
+                btnDownloadWallpaper.setText(percent >= 0 ? percent + "%" : "Downloading");
+            } else {
+                btnDownloadWallpaper.setText("Download");
+                if (lastDownloadState == WallpaperDownloads.State.RUNNING || lastDownloadState == WallpaperDownloads.State.QUEUED) {
+                    if (state == WallpaperDownloads.State.COMPLETED) {
+                        Toast.makeText(this, "Wallpaper downloaded to gallery!", Toast.LENGTH_SHORT).show();
+                    } else if (state == WallpaperDownloads.State.FAILED) {
+                        Toast.makeText(this, "Failed to download wallpaper.", Toast.LENGTH_SHORT).show();
+                    }
+                }
             }
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+            lastDownloadState = state;
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executorService.shutdown();
     }
 
     private float dpToPx(int dp) {
@@ -14,8 +14,9 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 
-import com.example.relwallpaper.BuildConfig;
 import com.example.relwallpaper.R;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.SupabaseQuery;
 import com.example.relwallpaper.databinding.FragmentProfileBinding;
 import com.example.relwallpaper.ui.auth.LoginActivity;
 import com.example.relwallpaper.ui.pages.AddWallpaperActivity;
@@ -40,15 +41,14 @@ import okhttp3.*;
 public class ProfileFragment extends Fragment {
 
     private FragmentProfileBinding binding;
-    private static final String SUPABASE_URL = BuildConfig.SUPABASE_URL;
-    private static final String SUPABASE_API_KEY = BuildConfig.SUPABASE_API_KEY;
     private static final String TAG = "ProfileFragment";
-    private final OkHttpClient httpClient = new OkHttpClient();
+    private SupabaseGateway gateway;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
                              ViewGroup container, Bundle savedInstanceState) {
 
         binding = FragmentProfileBinding.inflate(inflater, container, false);
+        gateway = SupabaseGateway.getInstance(requireContext());
         View root = binding.getRoot();
 
         hideAdminElements(root);
@@ -79,7 +79,7 @@ public class ProfileFragment extends Fragment {
         if (accessToken != null) {
             String currentUserId = getUserIdFromToken(accessToken);
             if (currentUserId != null) {
-                checkUserAdminStatus(currentUserId, accessToken, root);
+                checkUserAdminStatus(currentUserId, root);
             }
         }
     }
@@ -100,17 +100,12 @@ public class ProfileFragment extends Fragment {
         }
     }
 
-    private void checkUserAdminStatus(String userId, String accessToken, View root) {
-        String userUrl = SUPABASE_URL + "/rest/v1/users?id=eq." + userId + "&select=isAdmin";
+    private void checkUserAdminStatus(String userId, View root) {
+        SupabaseQuery query = gateway.from("users")
+                .eq("id", userId)
+                .select("isAdmin");
 
-        Request request = new Request.Builder()
-                .url(userUrl)
-                .get()
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .addHeader("apikey", SUPABASE_API_KEY)
-                .build();
-
-        httpClient.newCall(request).enqueue(new Callback() {
+        gateway.select(query, new Callback() {
             @Override
             public void onFailure(@NonNull Call call, @NonNull IOException e) {
                 Log.e(TAG, "Failed to check admin status: " + e.getMessage());
@@ -220,8 +215,5 @@ public class ProfileFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CacheLedger {
+
+    public enum Kind {
+        HTTP,
+        IMAGES,
+        OFFLINE
+    }
+
+    public interface Evictor {
+        void evict(List<String> keys) throws IOException;
+    }
+
+    public interface Rows {
+        List<Row> list();
+    }
+
+    public static final class Row {
+        public final String key;
+        public final long bytes;
+        public final long lastModified;
+
+        public Row(String key, long bytes, long lastModified) {
+            this.key = key;
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+    }
+
+    public static final class Usage {
+        public final Kind kind;
+        public final long bytes;
+        public final int entries;
+        public final long oldest;
+        public final long newest;
+
+        Usage(Kind kind, long bytes, int entries, long oldest, long newest) {
+            this.kind = kind;
+            this.bytes = bytes;
+            this.entries = entries;
+            this.oldest = oldest;
+            this.newest = newest;
+        }
+    }
+
+    public static final class Report {
+        public final Map<Kind, Usage> usages;
+        public final long totalBytes;
+        public final long freedBytes;
+
+        Report(Map<Kind, Usage> usages, long totalBytes, long freedBytes) {
+            this.usages = Collections.unmodifiableMap(usages);
+            this.totalBytes = totalBytes;
+            this.freedBytes = freedBytes;
+        }
+    }
+
+    private static final class Source {
+        final Kind kind;
+        final File directory;
+        final File[] files;
+        final Rows rows;
+        final Evictor evictor;
+
+        Source(Kind kind, File directory, File[] files, Rows rows, Evictor evictor) {
+            this.kind = kind;
+            this.directory = directory;
+            this.files = files;
+            this.rows = rows;
+            this.evictor = evictor;
+        }
+    }
+
+    private static final class Entry {
+        final Source source;
+        final String key;
+        long bytes;
+        long lastModified;
+
+        Entry(Source source, String key) {
+            this.source = source;
+            this.key = key;
+        }
+    }
+
+    private final List<Source> sources = new ArrayList<>();
+
+    public synchronized CacheLedger addDiskLruCache(Kind kind, File directory, Evictor evictor) {
+        sources.add(new Source(kind, directory, null, null, evictor));
+        return this;
+    }
+
+    public synchronized CacheLedger addFiles(Kind kind, Evictor evictor, File... files) {
+        sources.add(new Source(kind, null, files, null, evictor));
+        return this;
+    }
+
+    public synchronized CacheLedger addRows(Kind kind, Rows rows, Evictor evictor, File... files) {
+        sources.add(new Source(kind, null, files, rows, evictor));
+        return this;
+    }
+
+    public synchronized Report measure() {
+        List<Entry> entries = new ArrayList<>();
+        Map<Kind, Long> overhead = new EnumMap<>(Kind.class);
+        scan(entries, overhead);
+        return report(entries, overhead, 0);
+    }
+
+    public synchronized Report trimTo(long budgetBytes) {
+        List<Entry> entries = new ArrayList<>();
+        Map<Kind, Long> overhead = new EnumMap<>(Kind.class);
+        scan(entries, overhead);
+
+        long total = 0;
+        for (Entry entry : entries) total += entry.bytes;
+        for (long bytes : overhead.values()) total += bytes;
+        if (total <= budgetBytes) {
+            return report(entries, overhead, 0);
+        }
+
+        List<Entry> byAge = new ArrayList<>(entries);
+        Collections.sort(byAge, (a, b) -> Long.compare(a.lastModified, b.lastModified));
+        Map<Source, List<Entry>> victims = new LinkedHashMap<>();
+        long planned = 0;
+        for (Entry entry : byAge) {
+            if (total - planned <= budgetBytes) break;
+            List<Entry> list = victims.get(entry.source);
+            if (list == null) {
+                list = new ArrayList<>();
+                victims.put(entry.source, list);
+            }
+            list.add(entry);
+            planned += entry.bytes;
+        }
+
+        long freed = 0;
+        for (Map.Entry<Source, List<Entry>> group : victims.entrySet()) {
+            List<String> keys = new ArrayList<>(group.getValue().size());
+            long bytes = 0;
+            for (Entry entry : group.getValue()) {
+                keys.add(entry.key);
+                bytes += entry.bytes;
+            }
+            try {
+                group.getKey().evictor.evict(keys);
+                freed += bytes;
+                entries.removeAll(group.getValue());
+            } catch (IOException | RuntimeException ignored) {
+            }
+        }
+        return report(entries, overhead, freed);
+    }
+
+    private void scan(List<Entry> entries, Map<Kind, Long> overhead) {
+        for (Source source : sources) {
+            if (source.directory != null) {
+                scanDirectory(source, entries, overhead);
+            } else if (source.rows != null) {
+                scanRows(source, entries, overhead);
+            } else {
+                Entry entry = new Entry(source, source.kind.name());
+                for (File file : source.files) {
+                    if (file.isFile()) {
+                        entry.bytes += file.length();
+                        entry.lastModified = Math.max(entry.lastModified, file.lastModified());
+                    }
+                }
+                if (entry.bytes > 0) {
+                    entries.add(entry);
+                }
+            }
+        }
+    }
+
+    private static void scanRows(Source source, List<Entry> entries, Map<Kind, Long> overhead) {
+        long fileBytes = 0;
+        for (File file : source.files) {
+            if (file.isFile()) {
+                fileBytes += file.length();
+            }
+        }
+        long rowBytes = 0;
+        for (Row row : source.rows.list()) {
+            Entry entry = new Entry(source, row.key);
+            entry.bytes = row.bytes;
+            entry.lastModified = row.lastModified;
+            entries.add(entry);
+            rowBytes += row.bytes;
+        }
+        if (fileBytes > rowBytes) {
+            Long bytes = overhead.get(source.kind);
+            overhead.put(source.kind, (bytes == null ? 0 : bytes) + fileBytes - rowBytes);
+        }
+    }
+
+    private static void scanDirectory(Source source, List<Entry> entries, Map<Kind, Long> overhead) {
+        File[] files = source.directory.listFiles();
+        if (files == null) return;
+        Map<String, Entry> byKey = new HashMap<>();
+        for (File file : files) {
+            if (!file.isFile()) continue;
+            String name = file.getName();
+            int dot = name.indexOf('.');
+            if (name.startsWith("journal") || name.endsWith(".tmp") || dot <= 0) {
+                Long bytes = overhead.get(source.kind);
+                overhead.put(source.kind, (bytes == null ? 0 : bytes) + file.length());
+                continue;
+            }
+            String key = name.substring(0, dot);
+            Entry entry = byKey.get(key);
+            if (entry == null) {
+                entry = new Entry(source, key);
+                byKey.put(key, entry);
+                entries.add(entry);
+            }
+            entry.bytes += file.length();
+            entry.lastModified = Math.max(entry.lastModified, file.lastModified());
+        }
+    }
+
+    private static Report report(List<Entry> entries, Map<Kind, Long> overhead, long freed) {
+        Map<Kind, long[]> totals = new EnumMap<>(Kind.class);
+        for (Map.Entry<Kind, Long> bytes : overhead.entrySet()) {
+            totals.put(bytes.getKey(), new long[]{bytes.getValue(), 0, 0, 0});
+        }
+        for (Entry entry : entries) {
+            long[] totalsForKind = totals.get(entry.source.kind);
+            if (totalsForKind == null) {
+                totalsForKind = new long[4];
+                totals.put(entry.source.kind, totalsForKind);
+            }
+            totalsForKind[0] += entry.bytes;
+            totalsForKind[1]++;
+            if (totalsForKind[2] == 0 || entry.lastModified < totalsForKind[2]) {
+                totalsForKind[2] = entry.lastModified;
+            }
+            totalsForKind[3] = Math.max(totalsForKind[3], entry.lastModified);
+        }
+
+        Map<Kind, Usage> usages = new EnumMap<>(Kind.class);
+        long total = 0;
+        for (Map.Entry<Kind, long[]> kindTotals : totals.entrySet()) {
+            long[] values = kindTotals.getValue();
+            usages.put(kindTotals.getKey(), new Usage(kindTotals.getKey(), values[0], (int) values[1], values[2], values[3]));
+            total += values[0];
+        }
+        return new Report(usages, total, freed);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.relwallpaper.BuildConfig;
+import com.example.relwallpaper.data.SupabaseGateway;
+import com.example.relwallpaper.data.WallpaperColumns;
+import com.example.relwallpaper.data.WallpaperPager;
+import com.example.relwallpaper.data.WallpaperTags;
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CollectionDownloads implements WallpaperDownloads.Listener {
+    private static final String TAG = "CollectionDownloads";
+    private static final String PREFS_NAME = "collection_downloads";
+    private static final String KEY_BATCHES = "batches";
+    private static final int PAGE_SIZE = 24;
+    private static final int LOW_WATER = 8;
+    private static final long PAGE_RETRY_DELAY_MS = 30_000;
+
+    private static CollectionDownloads instance;
+
+    public static final class Progress {
+        public final String tag;
+        public final int completed;
+        public final int failed;
+        public final int pending;
+
+        Progress(String tag, int completed, int failed, int pending) {
+            this.tag = tag;
+            this.completed = completed;
+            this.failed = failed;
+            this.pending = pending;
+        }
+    }
+
+    private static final class Item {
+        String url;
+        String name;
+
+        Item(String url, String name) {
+            this.url = url;
+            this.name = name;
+        }
+    }
+
+    private static final class Batch {
+        String tag;
+        String cursorCreatedAt;
+        String cursorId;
+        boolean exhausted;
+        int completed;
+        int failed;
+        Map<String, Item> pending = new LinkedHashMap<>();
+        transient WallpaperPager pager;
+
+        Progress snapshot() {
+            return new Progress(tag, completed, failed, pending.size());
+        }
+    }
+
+    private final SharedPreferences prefs;
+    private final SupabaseGateway gateway;
+    private final WallpaperDownloads downloads;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<List<Progress>> progress = new MutableLiveData<>(Collections.emptyList());
+    private final List<Batch> batches;
+    private boolean resumed;
+
+    private CollectionDownloads(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.gateway = SupabaseGateway.getInstance(appContext);
+        this.downloads = WallpaperDownloads.getInstance(appContext);
+        this.batches = restore();
+        downloads.addListener(this);
+        publish();
+    }
+
+    public static synchronized CollectionDownloads getInstance(Context context) {
+        if (instance == null) {
+            instance = new CollectionDownloads(context);
+        }
+        return instance;
+    }
+
+    public LiveData<List<Progress>> getProgress() {
+        return progress;
+    }
+
+    public synchronized boolean isRunning(String tag) {
+        return find(tag) != null;
+    }
+
+    public synchronized boolean start(String tag) {
+        if (tag == null || tag.isEmpty() || find(tag) != null) return false;
+        Batch batch = new Batch();
+        batch.tag = tag;
+        batches.add(batch);
+        persist();
+        publish();
+        fill(batch);
+        return true;
+    }
+
+    public void cancel(String tag) {
+        List<String> ids;
+        synchronized (this) {
+            Batch batch = find(tag);
+            if (batch == null) return;
+            batches.remove(batch);
+            if (batch.pager != null) {
+                batch.pager.reset();
+            }
+            ids = new ArrayList<>(batch.pending.keySet());
+            persist();
+            publish();
+        }
+        for (String id : ids) {
+            downloads.cancel(id);
+        }
+    }
+
+    public synchronized void resume() {
+        if (resumed) return;
+        resumed = true;
+        for (Batch batch : new ArrayList<>(batches)) {
+            for (Map.Entry<String, Item> item : batch.pending.entrySet()) {
+                downloads.enqueue(item.getKey(), item.getValue().url, item.getValue().name);
+            }
+            if (batch.exhausted && batch.pending.isEmpty()) {
+                batches.remove(batch);
+            } else {
+                fill(batch);
+            }
+        }
+        persist();
+        publish();
+    }
+
+    @Override
+    public void onDownloadFinished(WallpaperDownloads.Download download) {
+        boolean tracked = false;
+        synchronized (this) {
+            for (Batch batch : new ArrayList<>(batches)) {
+                if (batch.pending.remove(download.id) == null) continue;
+                tracked = true;
+                if (download.state == WallpaperDownloads.State.COMPLETED) {
+                    batch.completed++;
+                } else if (download.state == WallpaperDownloads.State.FAILED) {
+                    batch.failed++;
+                }
+                if (batch.exhausted && batch.pending.isEmpty()) {
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Collection " + batch.tag + " finished: " + batch.completed + " saved, " + batch.failed + " failed");
+                    }
+                    batches.remove(batch);
+                } else {
+                    fill(batch);
+                }
+            }
+            if (tracked) {
+                persist();
+                publish();
+            }
+        }
+        if (tracked) {
+            downloads.forget(download.id);
+        }
+    }
+
+    private void fill(Batch batch) {
+        if (batch.exhausted || batch.pending.size() >= LOW_WATER) return;
+        if (batch.pager == null) {
+            String tag = batch.tag;
+            batch.pager = new WallpaperPager(gateway, PAGE_SIZE, () -> WallpaperTags.applyFilter(
+                    gateway.from("wallpapers").select(WallpaperColumns.DOWNLOAD), "tags", tag))
+                    .resumeAfter(batch.cursorCreatedAt, batch.cursorId);
+        }
+        if (batch.pager.isLoading()) return;
+
+        batch.pager.loadNext(new WallpaperPager.PageCallback() {
+            @Override
+            public void onPage(List<Wallpaper> page, boolean firstPage) {
+                onPageLoaded(batch, page);
+            }
+
+            @Override
+            public void onError(String message) {
+                Log.w(TAG, "Failed to page " + batch.tag + ": " + message);
+                mainHandler.postDelayed(() -> retry(batch), PAGE_RETRY_DELAY_MS);
+            }
+        });
+    }
+
+    private synchronized void retry(Batch batch) {
+        if (batches.contains(batch)) {
+            fill(batch);
+        }
+    }
+
+    private synchronized void onPageLoaded(Batch batch, List<Wallpaper> page) {
+        if (!batches.contains(batch)) return;
+        for (Wallpaper wallpaper : page) {
+            String url = wallpaper.getImageUrl();
+            if (url == null || url.isEmpty()) continue;
+            String id = wallpaper.getId() != null && !wallpaper.getId().isEmpty() ? wallpaper.getId() : url;
+            batch.pending.put(id, new Item(url, wallpaper.getName()));
+            downloads.enqueue(id, url, wallpaper.getName());
+        }
+        if (!page.isEmpty()) {
+            Wallpaper last = page.get(page.size() - 1);
+            batch.cursorCreatedAt = last.getCreatedAt();
+            batch.cursorId = last.getId();
+        }
+        batch.exhausted = !batch.pager.hasMore();
+        if (batch.exhausted && batch.pending.isEmpty()) {
+            batches.remove(batch);
+        } else {
+            fill(batch);
+        }
+        persist();
+        publish();
+    }
+
+    private Batch find(String tag) {
+        for (Batch batch : batches) {
+            if (batch.tag.equals(tag)) return batch;
+        }
+        return null;
+    }
+
+    private List<Batch> restore() {
+        String json = prefs.getString(KEY_BATCHES, null);
+        if (json != null) {
+            try {
+                List<Batch> restored = gson.fromJson(json, new TypeToken<List<Batch>>() {}.getType());
+                if (restored != null) {
+                    for (Batch batch : restored) {
+                        if (batch.pending == null) {
+                            batch.pending = new LinkedHashMap<>();
+                        }
+                    }
+                    return restored;
+                }
+            } catch (JsonParseException e) {
+                Log.w(TAG, "Discarding unreadable collection state", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private void persist() {
+        prefs.edit().putString(KEY_BATCHES, gson.toJson(batches)).apply();
+    }
+
+    private void publish() {
+        List<Progress> snapshot = new ArrayList<>(batches.size());
+        for (Batch batch : batches) {
+            snapshot.add(batch.snapshot());
+        }
+        progress.postValue(Collections.unmodifiableList(snapshot));
+    }
+}
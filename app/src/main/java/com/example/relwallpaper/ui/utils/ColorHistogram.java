@@ -0,0 +1,73 @@
+package com.example.relwallpaper.ui.utils;
+
+public final class ColorHistogram {
+
+    static final int BITS = 5;
+    private static final int SHIFT = 8 - BITS;
+    private static final int BINS = 1 << (3 * BITS);
+    private static final int MIN_ALPHA = 128;
+
+    private final int[] colors;
+    private final int[] weights;
+    private final int size;
+    private final int total;
+
+    private ColorHistogram(int[] colors, int[] weights, int size, int total) {
+        this.colors = colors;
+        this.weights = weights;
+        this.size = size;
+        this.total = total;
+    }
+
+    public static ColorHistogram of(int[] pixels, int count) {
+        int[] counts = new int[BINS];
+        long[] sums = new long[BINS * 3];
+        int size = 0;
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int pixel = pixels[i];
+            if ((pixel >>> 24) < MIN_ALPHA) continue;
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            int bin = ((r >> SHIFT) << (2 * BITS)) | ((g >> SHIFT) << BITS) | (b >> SHIFT);
+            if (counts[bin]++ == 0) size++;
+            sums[bin * 3] += r;
+            sums[bin * 3 + 1] += g;
+            sums[bin * 3 + 2] += b;
+            total++;
+        }
+
+        int[] colors = new int[size];
+        int[] weights = new int[size];
+        int index = 0;
+        for (int bin = 0; bin < BINS && index < size; bin++) {
+            int weight = counts[bin];
+            if (weight == 0) continue;
+            int half = weight / 2;
+            int r = (int) ((sums[bin * 3] + half) / weight);
+            int g = (int) ((sums[bin * 3 + 1] + half) / weight);
+            int b = (int) ((sums[bin * 3 + 2] + half) / weight);
+            colors[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            weights[index] = weight;
+            index++;
+        }
+        return new ColorHistogram(colors, weights, size, total);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    public int getWeight(int index) {
+        return weights[index];
+    }
+}
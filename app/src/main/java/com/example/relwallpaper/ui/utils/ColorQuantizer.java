@@ -0,0 +1,6 @@
+package com.example.relwallpaper.ui.utils;
+
+public interface ColorQuantizer {
+
+    QuantizedPalette quantize(ColorHistogram histogram, int maxColors);
+}
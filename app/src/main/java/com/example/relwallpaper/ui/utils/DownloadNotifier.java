@@ -0,0 +1,96 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+import com.example.relwallpaper.R;
+import java.util.List;
+
+class DownloadNotifier {
+    private static final String CHANNEL_ID = "downloads";
+    private static final int NOTIFICATION_ID = 2001;
+
+    private final Context context;
+    private final NotificationManagerCompat notificationManager;
+    private boolean showingProgress;
+    private int sessionCompleted;
+    private int sessionFailed;
+
+    DownloadNotifier(Context context) {
+        this.context = context;
+        this.notificationManager = NotificationManagerCompat.from(context);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Downloads", NotificationManager.IMPORTANCE_LOW);
+            channel.setDescription("Wallpaper download progress");
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+        notificationManager.cancel(NOTIFICATION_ID);
+    }
+
+    void onFinished(WallpaperDownloads.Download download) {
+        if (download.state == WallpaperDownloads.State.COMPLETED) {
+            sessionCompleted++;
+        } else if (download.state == WallpaperDownloads.State.FAILED) {
+            sessionFailed++;
+        }
+    }
+
+    void update(List<WallpaperDownloads.Download> downloads) {
+        if (!canNotify()) return;
+
+        int active = 0;
+        long bytes = 0;
+        long total = 0;
+        boolean sizeKnown = true;
+        for (WallpaperDownloads.Download download : downloads) {
+            if (download.isActive()) {
+                active++;
+                bytes += download.bytesDownloaded;
+                if (download.totalBytes > 0) {
+                    total += download.totalBytes;
+                } else {
+                    sizeKnown = false;
+                }
+            }
+        }
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_baseline_download_24)
+                .setOnlyAlertOnce(true);
+        if (active > 0) {
+            int progress = sizeKnown && total > 0 ? (int) (bytes * 100 / total) : 0;
+            builder.setContentTitle(active == 1 ? "Downloading wallpaper" : "Downloading " + active + " wallpapers")
+                    .setContentText(sizeKnown && total > 0
+                            ? ImageCacheManager.formatCacheSize(bytes) + " of " + ImageCacheManager.formatCacheSize(total)
+                            : ImageCacheManager.formatCacheSize(bytes))
+                    .setProgress(100, progress, !sizeKnown || total == 0);
+            if (!showingProgress) {
+                sessionCompleted = 0;
+                sessionFailed = 0;
+                showingProgress = true;
+            }
+        } else if (showingProgress) {
+            builder.setContentTitle(sessionFailed == 0 ? "Downloads complete" : "Downloads finished")
+                    .setContentText(sessionCompleted + " saved to gallery" + (sessionFailed > 0 ? ", " + sessionFailed + " failed" : ""))
+                    .setAutoCancel(true);
+            showingProgress = false;
+        } else {
+            return;
+        }
+        notificationManager.notify(NOTIFICATION_ID, builder.build());
+    }
+
+    private boolean canNotify() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            return false;
+        }
+        return notificationManager.areNotificationsEnabled();
+    }
+}
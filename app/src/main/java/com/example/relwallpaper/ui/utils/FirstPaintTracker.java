@@ -0,0 +1,49 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+public final class FirstPaintTracker {
+
+    private static final String TAG = "FirstPaint";
+
+    private static long startUptime = -1;
+    private static long firstCardMs = -1;
+    private static long firstImageMs = -1;
+    private static String firstCardSource;
+
+    private FirstPaintTracker() {
+    }
+
+    public static synchronized void start() {
+        if (startUptime >= 0) return;
+        startUptime = Process.getStartUptimeMillis();
+    }
+
+    public static synchronized void onFirstCard(String source) {
+        if (startUptime < 0 || firstCardMs >= 0) return;
+        firstCardMs = SystemClock.uptimeMillis() - startUptime;
+        firstCardSource = source;
+        Log.i(TAG, "time-to-first-card=" + firstCardMs + "ms source=" + source);
+    }
+
+    public static synchronized boolean onFirstImage() {
+        if (startUptime < 0 || firstCardMs < 0 || firstImageMs >= 0) return false;
+        firstImageMs = SystemClock.uptimeMillis() - startUptime;
+        Log.i(TAG, "time-to-first-image=" + firstImageMs + "ms source=" + firstCardSource);
+        return true;
+    }
+
+    public static synchronized boolean isWaitingForImage() {
+        return startUptime >= 0 && firstImageMs < 0;
+    }
+
+    public static synchronized long getFirstCardMs() {
+        return firstCardMs;
+    }
+
+    public static synchronized long getFirstImageMs() {
+        return firstImageMs;
+    }
+}
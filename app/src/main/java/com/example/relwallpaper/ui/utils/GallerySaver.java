@@ -0,0 +1,208 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.Environment;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ExecutionException;
+
+public class GallerySaver {
+
+    public interface ProgressListener {
+        void onProgress(long bytesCopied, long totalBytes);
+    }
+
+    private static final String ALBUM = "RelWallpaper";
+    private static final long CHUNK_BYTES = 256 * 1024;
+    private static final int HEADER_BYTES = 32;
+    private static final String DEFAULT_MIME_TYPE = "image/jpeg";
+
+    private final Context context;
+
+    public GallerySaver(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @WorkerThread
+    @Nullable
+    public Uri saveCached(String imageUrl, String name, @Nullable ProgressListener listener,
+                          @Nullable CancellationSignal signal) throws IOException {
+        File cached = cachedOriginal(imageUrl);
+        return cached != null ? save(cached, name, listener, signal) : null;
+    }
+
+    @WorkerThread
+    public Uri save(File file, String name, @Nullable ProgressListener listener,
+                    @Nullable CancellationSignal signal) throws IOException {
+        try (FileInputStream in = new FileInputStream(file); FileChannel source = in.getChannel()) {
+            return write(source, file.length(), name, listener, signal);
+        }
+    }
+
+    @Nullable
+    private File cachedOriginal(String imageUrl) {
+        try {
+            return Glide.with(context)
+                    .downloadOnly()
+                    .load(imageUrl)
+                    .apply(new RequestOptions().onlyRetrieveFromCache(true))
+                    .submit()
+                    .get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private Uri write(ReadableByteChannel source, long totalBytes, String name,
+                      @Nullable ProgressListener listener, @Nullable CancellationSignal signal) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && source.read(header) >= 0) {
+            throwIfCanceled(signal);
+        }
+        header.flip();
+
+        String mimeType = sniffMimeType(header.array(), header.limit());
+        if (mimeType == null) {
+            mimeType = DEFAULT_MIME_TYPE;
+        }
+
+        ContentResolver resolver = context.getContentResolver();
+        Uri uri = insert(resolver, fileName(name, mimeType), mimeType);
+        boolean complete = false;
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "w")) {
+            if (descriptor == null) {
+                throw new IOException("Failed to open " + uri);
+            }
+            try (FileOutputStream out = new FileOutputStream(descriptor.getFileDescriptor());
+                 FileChannel target = out.getChannel()) {
+                long position = target.write(header);
+                report(listener, position, totalBytes);
+                while (totalBytes < 0 || position < totalBytes) {
+                    throwIfCanceled(signal);
+                    long chunk = totalBytes < 0 ? CHUNK_BYTES : Math.min(CHUNK_BYTES, totalBytes - position);
+                    long copied = target.transferFrom(source, position, chunk);
+                    if (copied <= 0) break;
+                    position += copied;
+                    report(listener, position, totalBytes);
+                }
+                if (totalBytes >= 0 && position < totalBytes) {
+                    throw new IOException("Unexpected end of image after " + position + " of " + totalBytes + " bytes");
+                }
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                ContentValues values = new ContentValues();
+                values.put(MediaStore.Images.Media.IS_PENDING, 0);
+                resolver.update(uri, values, null, null);
+            }
+            complete = true;
+            return uri;
+        } finally {
+            if (!complete) {
+                resolver.delete(uri, null, null);
+            }
+        }
+    }
+
+    private Uri insert(ContentResolver resolver, String fileName, String mimeType) throws IOException {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.Images.Media.DISPLAY_NAME, fileName);
+        values.put(MediaStore.Images.Media.MIME_TYPE, mimeType);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            values.put(MediaStore.Images.Media.RELATIVE_PATH, Environment.DIRECTORY_PICTURES + File.separator + ALBUM);
+            values.put(MediaStore.Images.Media.IS_PENDING, 1);
+        } else {
+            File directory = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_PICTURES), ALBUM);
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Failed to create " + directory);
+            }
+            values.put(MediaStore.Images.Media.DATA, new File(directory, fileName).getAbsolutePath());
+        }
+        Uri uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+        if (uri == null) {
+            throw new IOException("Failed to create gallery entry");
+        }
+        return uri;
+    }
+
+    private static void report(@Nullable ProgressListener listener, long bytesCopied, long totalBytes) {
+        if (listener != null) {
+            listener.onProgress(bytesCopied, totalBytes);
+        }
+    }
+
+    private static void throwIfCanceled(@Nullable CancellationSignal signal) {
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+    }
+
+    static String fileName(String name, String mimeType) {
+        String base = name != null && !name.trim().isEmpty() ? name.replaceAll("[^a-zA-Z0-9.-]", "_") : "wallpaper";
+        return base + "_" + System.currentTimeMillis() + "." + extensionFor(mimeType);
+    }
+
+    static String extensionFor(String mimeType) {
+        switch (mimeType) {
+            case "image/png":
+                return "png";
+            case "image/webp":
+                return "webp";
+            case "image/gif":
+                return "gif";
+            case "image/avif":
+                return "avif";
+            case "image/heic":
+                return "heic";
+            default:
+                return "jpg";
+        }
+    }
+
+    @Nullable
+    static String sniffMimeType(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && matches(header, 1, "PNG")) {
+            return "image/png";
+        }
+        if (length >= 12 && matches(header, 0, "RIFF") && matches(header, 8, "WEBP")) {
+            return "image/webp";
+        }
+        if (length >= 6 && matches(header, 0, "GIF8")) {
+            return "image/gif";
+        }
+        if (length >= 12 && matches(header, 4, "ftyp")) {
+            if (matches(header, 8, "avif") || matches(header, 8, "avis")) return "image/avif";
+            if (matches(header, 8, "heic") || matches(header, 8, "heix") || matches(header, 8, "mif1")) return "image/heic";
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] header, int offset, String signature) {
+        if (header.length < offset + signature.length()) return false;
+        for (int i = 0; i < signature.length(); i++) {
+            if (header[offset + i] != (byte) signature.charAt(i)) return false;
+        }
+        return true;
+    }
+}
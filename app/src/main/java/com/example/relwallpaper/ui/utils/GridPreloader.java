@@ -0,0 +1,210 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+
+public class GridPreloader extends RecyclerView.OnScrollListener implements ComponentCallbacks2 {
+
+    public interface RequestProvider {
+        @Nullable
+        String preloadKey(int position);
+
+        @Nullable
+        RequestBuilder<Drawable> preloadRequest(int position);
+    }
+
+    private static final long BACKOFF_MS = 30_000;
+
+    private final Context context;
+    private final ImageCacheManager cacheManager;
+    private final RequestProvider provider;
+    private final int positionOffset;
+    private final int maxPreload;
+
+    private RecyclerView recyclerView;
+    private PreloadScheduler.Batch batch;
+    private int[] spanPositions;
+    private boolean scrollingDown = true;
+    private int preloadedEnd = -1;
+    private int preloadedStart = -1;
+    private long backoffUntil;
+    private boolean reducedOnly;
+
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            resetRange();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            resetRange();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            resetRange();
+        }
+    };
+
+    public GridPreloader(Context context, RequestProvider provider, int positionOffset, int maxPreload) {
+        this.context = context.getApplicationContext();
+        this.cacheManager = ImageCacheManager.getInstance(context);
+        this.provider = provider;
+        this.positionOffset = positionOffset;
+        this.maxPreload = maxPreload;
+        this.batch = cacheManager.newBatch();
+    }
+
+    public void attach(RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(this);
+        if (recyclerView.getAdapter() != null) {
+            recyclerView.getAdapter().registerAdapterDataObserver(dataObserver);
+        }
+        context.registerComponentCallbacks(this);
+    }
+
+    public void detach() {
+        if (recyclerView != null) {
+            recyclerView.removeOnScrollListener(this);
+            if (recyclerView.getAdapter() != null) {
+                recyclerView.getAdapter().unregisterAdapterDataObserver(dataObserver);
+            }
+            recyclerView = null;
+        }
+        context.unregisterComponentCallbacks(this);
+        cancelAll();
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (adapter == null || layoutManager == null) return;
+
+        int first;
+        int last;
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            StaggeredGridLayoutManager grid = (StaggeredGridLayoutManager) layoutManager;
+            if (spanPositions == null || spanPositions.length != grid.getSpanCount()) {
+                spanPositions = new int[grid.getSpanCount()];
+            }
+            first = min(grid.findFirstVisibleItemPositions(spanPositions));
+            last = max(grid.findLastVisibleItemPositions(spanPositions));
+        } else if (layoutManager instanceof LinearLayoutManager) {
+            first = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+            last = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        } else {
+            return;
+        }
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        boolean down = dy > 0 || (dy == 0 && scrollingDown);
+        if (down != scrollingDown) {
+            scrollingDown = down;
+            cancelAll();
+        }
+
+        int limit = currentLimit();
+        if (limit == 0) return;
+
+        int total = adapter.getItemCount();
+        if (down) {
+            int from = Math.max(last + 1, preloadedEnd);
+            int to = Math.min(total, last + 1 + limit);
+            for (int position = from; position < to; position++) {
+                preload(position);
+            }
+            preloadedEnd = Math.max(preloadedEnd, to);
+        } else {
+            int from = preloadedStart >= 0 ? Math.min(first - 1, preloadedStart - 1) : first - 1;
+            int to = Math.max(0, first - limit);
+            for (int position = from; position >= to; position--) {
+                preload(position);
+            }
+            preloadedStart = preloadedStart >= 0 ? Math.min(preloadedStart, to) : to;
+        }
+    }
+
+    private void preload(int position) {
+        int itemPosition = position - positionOffset;
+        String key = provider.preloadKey(itemPosition);
+        if (key == null) return;
+        RequestBuilder<Drawable> request = provider.preloadRequest(itemPosition);
+        if (request == null) return;
+        cacheManager.preload(batch, key, request.priority(Priority.LOW), PreloadScheduler.Priority.SPECULATIVE);
+    }
+
+    private int currentLimit() {
+        if (SystemClock.uptimeMillis() >= backoffUntil) return maxPreload;
+        return reducedOnly ? Math.max(1, maxPreload / 2) : 0;
+    }
+
+    private void backOff(boolean reduce) {
+        backoffUntil = SystemClock.uptimeMillis() + BACKOFF_MS;
+        reducedOnly = reduce;
+        if (!reduce) {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        batch.cancel();
+        batch = cacheManager.newBatch();
+        resetRange();
+    }
+
+    private void resetRange() {
+        preloadedEnd = -1;
+        preloadedStart = -1;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            backOff(false);
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            backOff(true);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        backOff(false);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    private static int min(int[] positions) {
+        int result = RecyclerView.NO_POSITION;
+        for (int position : positions) {
+            if (position != RecyclerView.NO_POSITION && (result == RecyclerView.NO_POSITION || position < result)) {
+                result = position;
+            }
+        }
+        return result;
+    }
+
+    private static int max(int[] positions) {
+        int result = RecyclerView.NO_POSITION;
+        for (int position : positions) {
+            if (position > result) {
+                result = position;
+            }
+        }
+        return result;
+    }
+}
@@ -1,33 +1,75 @@
 package com.example.relwallpaper.ui.utils;
 
 import android.content.Context;
-import android.graphics.Bitmap;
+import android.content.SharedPreferences;
+import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.bumptech.glide.request.RequestOptions;
-import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.transition.Transition;
+import com.example.relwallpaper.BuildConfig;
+import com.example.relwallpaper.data.WallpaperStore;
+import com.example.relwallpaper.ui.MyApplication;
+import com.example.relwallpaper.ui.RelWallpaperGlideModule;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.List;
-import java.util.concurrent.Future;
-import java.util.ArrayList;
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
 
 public class ImageCacheManager {
     private static final String TAG = "ImageCacheManager";
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int MAX_QUEUED = 48;
+    private static final int REMEMBER_COMPLETED = 128;
+    private static final String PREFS_NAME = "cache_settings";
+    private static final String KEY_BUDGET = "budget_bytes";
+    private static final long MB = 1024L * 1024;
+    public static final long[] BUDGET_OPTIONS = {128 * MB, 256 * MB, 512 * MB, 1024 * MB};
+    public static final long DEFAULT_BUDGET = 512 * MB;
+
     private static ImageCacheManager instance;
     private final Context context;
-    private final ExecutorService executor;
+    private final ExecutorService diskExecutor;
     private final Handler mainHandler;
-    private final List<Future<?>> preloadTasks;
+    private final PreloadScheduler<RequestBuilder<Drawable>> scheduler;
+    private final LruCache<String, int[]> displayedSizes = new LruCache<>(REMEMBER_COMPLETED);
+    private CacheLedger ledger;
 
     private ImageCacheManager(Context context) {
         this.context = context.getApplicationContext();
-        this.executor = Executors.newFixedThreadPool(3);
+        this.diskExecutor = Executors.newSingleThreadExecutor();
         this.mainHandler = new Handler(Looper.getMainLooper());
-        this.preloadTasks = new ArrayList<>();
+        this.scheduler = new PreloadScheduler<>(this::startPreload, MAX_IN_FLIGHT, MAX_QUEUED, REMEMBER_COMPLETED);
+        trimToBudget();
+    }
+
+    public static long readCacheBudget(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getLong(KEY_BUDGET, DEFAULT_BUDGET);
+    }
+
+    public static long imageShareOf(long budget) {
+        return budget - httpShareOf(budget);
+    }
+
+    public static long httpShareOf(long budget) {
+        return budget / 4;
     }
 
     public static synchronized ImageCacheManager getInstance(Context context) {
@@ -37,86 +79,52 @@ public class ImageCacheManager {
         return instance;
     }
 
-    public void preloadImages(List<String> imageUrls, PreloadCallback callback) {
-        if (imageUrls == null || imageUrls.isEmpty()) {
-            if (callback != null) {
-                mainHandler.post(() -> callback.onPreloadComplete(0));
-            }
+    public PreloadScheduler.Batch newBatch() {
+        return scheduler.newBatch();
+    }
+
+    public void preload(PreloadScheduler.Batch batch, String key, RequestBuilder<Drawable> request,
+                        PreloadScheduler.Priority priority) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> preload(batch, key, request, priority));
             return;
         }
+        scheduler.submit(batch, key, request, priority);
+    }
 
-        Future<?> task = executor.submit(() -> {
-            int successCount = 0;
-            int totalImages = imageUrls.size();
-
-            for (int i = 0; i < totalImages; i++) {
-                String imageUrl = imageUrls.get(i);
-                if (imageUrl != null && !imageUrl.isEmpty()) {
-                    try {
-                        RequestOptions preloadOptions = new RequestOptions()
-                                .diskCacheStrategy(DiskCacheStrategy.ALL)
-                                .override(400, 600)
-                                .skipMemoryCache(false);
-
-                        FutureTarget<Bitmap> futureTarget = Glide.with(context)
-                                .asBitmap()
-                                .load(imageUrl)
-                                .apply(preloadOptions)
-                                .submit();
-
-                        futureTarget.get();
-                        successCount++;
-
-
-                        final int currentProgress = i + 1;
-                        final int currentSuccessCount = successCount;
-                        mainHandler.post(() -> {
-                            if (callback != null) {
-                                callback.onPreloadProgress(currentProgress, totalImages);
-                            }
-                        });
-
-                    } catch (Exception e) {
-                        Log.w(TAG, "Failed to preload image: " + imageUrl, e);
-                    }
-                }
-            }
-
-            final int finalSuccessCount = successCount;
-            mainHandler.post(() -> {
-                if (callback != null) {
-                    callback.onPreloadComplete(finalSuccessCount);
-                }
-            });
-        });
-
-        preloadTasks.add(task);
+    public void recordDisplay(String key, int width, int height) {
+        scheduler.recordDisplay(key);
+        if (key != null && width > 0 && height > 0) {
+            displayedSizes.put(key, new int[]{width, height});
+        }
     }
 
-    public void preloadImageWithSize(String imageUrl, int width, int height) {
-        if (imageUrl == null || imageUrl.isEmpty()) return;
+    @Nullable
+    public int[] getDisplayedSize(String key) {
+        return key != null ? displayedSizes.get(key) : null;
+    }
 
-        executor.submit(() -> {
-            try {
-                RequestOptions options = new RequestOptions()
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
-                        .override(width, height);
+    public PreloadScheduler.Metrics getMetrics() {
+        return scheduler.getMetrics();
+    }
 
-                FutureTarget<Bitmap> futureTarget = Glide.with(context)
-                        .asBitmap()
-                        .load(imageUrl)
-                        .apply(options)
-                        .submit();
+    public void cancelPreloadTasks() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(this::cancelPreloadTasks);
+            return;
+        }
+        scheduler.cancelAll();
+    }
 
-                futureTarget.get();
-            } catch (Exception e) {
-                Log.w(TAG, "Failed to preload image with custom size: " + imageUrl, e);
-            }
-        });
+    private PreloadScheduler.Handle startPreload(RequestBuilder<Drawable> request, PreloadScheduler.Completion completion) {
+        PreloadTarget target = new PreloadTarget(completion);
+        request.addListener(target).into(target);
+        return target;
     }
 
     public void clearCache() {
-        executor.submit(() -> {
+        cancelPreloadTasks();
+        diskExecutor.execute(() -> {
             try {
                 Glide.get(context).clearDiskCache();
             } catch (Exception e) {
@@ -133,51 +141,137 @@ public class ImageCacheManager {
         });
     }
 
-    public void getCacheSize(CacheSizeCallback callback) {
-        executor.submit(() -> {
+    public long getCacheBudget() {
+        return readCacheBudget(context);
+    }
+
+    public void setCacheBudget(long budgetBytes) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        prefs.edit().putLong(KEY_BUDGET, budgetBytes).apply();
+        trimToBudget();
+    }
+
+    public void trimToBudget() {
+        long budget = getCacheBudget();
+        diskExecutor.execute(() -> {
             try {
-                long cacheSize = calculateCacheSize();
-                mainHandler.post(() -> {
-                    if (callback != null) {
-                        callback.onCacheSizeCalculated(cacheSize);
-                    }
-                });
+                CacheLedger.Report report = ledger().trimTo(budget);
+                if (BuildConfig.DEBUG && report.freedBytes > 0) {
+                    Log.d(TAG, "Evicted " + formatCacheSize(report.freedBytes) + ", now "
+                            + formatCacheSize(report.totalBytes) + " of " + formatCacheSize(budget));
+                }
             } catch (Exception e) {
-                Log.e(TAG, "Failed to calculate cache size", e);
-                mainHandler.post(() -> {
-                    if (callback != null) {
-                        callback.onCacheSizeCalculated(0);
-                    }
-                });
+                Log.e(TAG, "Failed to trim caches", e);
             }
         });
     }
 
-    private long calculateCacheSize() {
-        try {
-            return context.getCacheDir().length();
-        } catch (Exception e) {
-            return 0;
+    public void getCacheUsage(CacheUsageCallback callback) {
+        diskExecutor.execute(() -> {
+            CacheLedger.Report report = ledger().measure();
+            mainHandler.post(() -> {
+                if (callback != null) {
+                    callback.onCacheUsageMeasured(report);
+                }
+            });
+        });
+    }
+
+    public void getCacheSize(CacheSizeCallback callback) {
+        getCacheUsage(report -> {
+            if (callback != null) {
+                callback.onCacheSizeCalculated(report.totalBytes);
+            }
+        });
+    }
+
+    private CacheLedger ledger() {
+        if (ledger == null) {
+            CacheLedger cacheLedger = new CacheLedger();
+            File imageDir = new File(context.getCacheDir(), RelWallpaperGlideModule.DISK_CACHE_DIR);
+            ImageDiskCache imageCache = ImageDiskCache.getInstance(context);
+            cacheLedger.addDiskLruCache(CacheLedger.Kind.IMAGES, imageDir, imageCache::remove);
+            Cache httpCache = MyApplication.getHttpClient(context).cache();
+            if (httpCache != null) {
+                cacheLedger.addDiskLruCache(CacheLedger.Kind.HTTP, httpCache.directory(),
+                        keys -> removeHttpEntries(httpCache, keys));
+            }
+            WallpaperStore store = WallpaperStore.getInstance(context);
+            cacheLedger.addRows(CacheLedger.Kind.OFFLINE, () -> offlineRows(store), store::evict,
+                    store.getDatabaseFiles(context));
+            ledger = cacheLedger;
         }
+        return ledger;
     }
 
-    public void cancelPreloadTasks() {
-        for (Future<?> task : preloadTasks) {
-            if (!task.isDone()) {
-                task.cancel(true);
+    private static List<CacheLedger.Row> offlineRows(WallpaperStore store) {
+        List<WallpaperStore.Footprint> footprints = store.footprints();
+        List<CacheLedger.Row> rows = new ArrayList<>(footprints.size());
+        for (WallpaperStore.Footprint footprint : footprints) {
+            rows.add(new CacheLedger.Row(footprint.id, footprint.bytes, footprint.syncedAt));
+        }
+        return rows;
+    }
+
+    private static void removeHttpEntries(Cache cache, List<String> keys) throws IOException {
+        Set<String> doomed = new HashSet<>(keys);
+        Iterator<String> urls = cache.urls();
+        while (urls.hasNext()) {
+            HttpUrl url = HttpUrl.parse(urls.next());
+            if (url != null && doomed.contains(Cache.key(url))) {
+                urls.remove();
             }
         }
-        preloadTasks.clear();
     }
 
     public void cleanup() {
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Preload metrics: " + scheduler.getMetrics());
+        }
         cancelPreloadTasks();
-        executor.shutdown();
+        diskExecutor.shutdown();
+    }
+
+    private class PreloadTarget extends CustomTarget<Drawable>
+            implements RequestListener<Drawable>, PreloadScheduler.Handle {
+
+        private final PreloadScheduler.Completion completion;
+
+        PreloadTarget(PreloadScheduler.Completion completion) {
+            super(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL);
+            this.completion = completion;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            completion.onComplete(false, false);
+            mainHandler.post(this::cancel);
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+            completion.onComplete(true, dataSource != DataSource.REMOTE);
+            mainHandler.post(this::cancel);
+            return false;
+        }
+
+        @Override
+        public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+        }
+
+        @Override
+        public void onLoadCleared(@Nullable Drawable placeholder) {
+        }
+
+        @Override
+        public void cancel() {
+            Glide.with(context).clear(this);
+        }
     }
 
-    public interface PreloadCallback {
-        void onPreloadProgress(int loaded, int total);
-        void onPreloadComplete(int successCount);
+    public interface CacheUsageCallback {
+        void onCacheUsageMeasured(CacheLedger.Report report);
     }
 
     public interface CacheSizeCallback {
@@ -190,4 +284,4 @@ public class ImageCacheManager {
         if (bytes < 1024 * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
         return String.format("%.1f GB", bytes / (1024.0 * 1024.0 * 1024.0));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.disklrucache.DiskLruCache;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.SafeKeyGenerator;
+import com.example.relwallpaper.ui.RelWallpaperGlideModule;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class ImageDiskCache implements DiskCache {
+    private static final String TAG = "ImageDiskCache";
+    private static final int APP_VERSION = 1;
+    private static final int VALUE_COUNT = 1;
+
+    private static ImageDiskCache instance;
+
+    private final File directory;
+    private final SafeKeyGenerator keyGenerator = new SafeKeyGenerator();
+    private long maxSize;
+    private DiskLruCache cache;
+
+    private ImageDiskCache(Context context) {
+        this.directory = new File(context.getCacheDir(), RelWallpaperGlideModule.DISK_CACHE_DIR);
+        this.maxSize = ImageCacheManager.imageShareOf(ImageCacheManager.readCacheBudget(context));
+    }
+
+    public static synchronized ImageDiskCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageDiskCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        if (cache != null) {
+            cache.setMaxSize(maxSize);
+        }
+    }
+
+    @Nullable
+    @Override
+    public File get(Key key) {
+        try {
+            DiskLruCache.Value value = cache().get(keyGenerator.getSafeKey(key));
+            return value != null ? value.getFile(0) : null;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read from disk cache", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(Key key, Writer writer) {
+        String safeKey = keyGenerator.getSafeKey(key);
+        try {
+            DiskLruCache diskLruCache = cache();
+            if (diskLruCache.get(safeKey) != null) return;
+            DiskLruCache.Editor editor = diskLruCache.edit(safeKey);
+            if (editor == null) return;
+            try {
+                if (writer.write(editor.getFile(0))) {
+                    editor.commit();
+                }
+            } finally {
+                editor.abortUnlessCommitted();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write to disk cache", e);
+        }
+    }
+
+    @Override
+    public void delete(Key key) {
+        try {
+            cache().remove(keyGenerator.getSafeKey(key));
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to delete from disk cache", e);
+        }
+    }
+
+    public void remove(List<String> safeKeys) throws IOException {
+        DiskLruCache diskLruCache = cache();
+        for (String safeKey : safeKeys) {
+            diskLruCache.remove(safeKey);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        try {
+            cache().delete();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to clear disk cache", e);
+        } finally {
+            cache = null;
+        }
+    }
+
+    private synchronized DiskLruCache cache() throws IOException {
+        if (cache == null) {
+            cache = DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize);
+        }
+        return cache;
+    }
+}
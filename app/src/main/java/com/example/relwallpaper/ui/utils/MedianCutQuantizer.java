@@ -0,0 +1,112 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.Arrays;
+
+public final class MedianCutQuantizer implements ColorQuantizer {
+
+    @Override
+    public QuantizedPalette quantize(ColorHistogram histogram, int maxColors) {
+        int size = histogram.size();
+        if (size == 0 || maxColors <= 0) {
+            return QuantizedPalette.empty();
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] scratch = new int[size];
+        int[] buckets = new int[257];
+        int[] starts = new int[maxColors];
+        int[] ends = new int[maxColors];
+        ends[0] = size;
+        int boxes = 1;
+
+        while (boxes < maxColors) {
+            int target = -1;
+            int targetShift = 0;
+            long targetScore = 0;
+            for (int box = 0; box < boxes; box++) {
+                int minR = 255, minG = 255, minB = 255, maxR = 0, maxG = 0, maxB = 0;
+                long population = 0;
+                for (int i = starts[box]; i < ends[box]; i++) {
+                    int color = histogram.getColor(order[i]);
+                    int r = (color >> 16) & 0xFF;
+                    int g = (color >> 8) & 0xFF;
+                    int b = color & 0xFF;
+                    minR = Math.min(minR, r);
+                    maxR = Math.max(maxR, r);
+                    minG = Math.min(minG, g);
+                    maxG = Math.max(maxG, g);
+                    minB = Math.min(minB, b);
+                    maxB = Math.max(maxB, b);
+                    population += histogram.getWeight(order[i]);
+                }
+                int rangeR = maxR - minR;
+                int rangeG = maxG - minG;
+                int rangeB = maxB - minB;
+                int range = Math.max(rangeR, Math.max(rangeG, rangeB));
+                long score = population * range;
+                if (range > 0 && score > targetScore) {
+                    targetScore = score;
+                    target = box;
+                    targetShift = range == rangeR ? 16 : range == rangeG ? 8 : 0;
+                }
+            }
+            if (target < 0) break;
+
+            int start = starts[target];
+            int end = ends[target];
+            sortByChannel(histogram, order, scratch, buckets, start, end, targetShift);
+
+            long half = 0;
+            for (int i = start; i < end; i++) {
+                half += histogram.getWeight(order[i]);
+            }
+            half /= 2;
+            int split = start + 1;
+            long cumulative = histogram.getWeight(order[start]);
+            while (split < end - 1 && cumulative < half) {
+                cumulative += histogram.getWeight(order[split]);
+                split++;
+            }
+
+            starts[boxes] = split;
+            ends[boxes] = end;
+            ends[target] = split;
+            boxes++;
+        }
+
+        long[] sumR = new long[boxes];
+        long[] sumG = new long[boxes];
+        long[] sumB = new long[boxes];
+        long[] weights = new long[boxes];
+        for (int box = 0; box < boxes; box++) {
+            for (int i = starts[box]; i < ends[box]; i++) {
+                int color = histogram.getColor(order[i]);
+                int weight = histogram.getWeight(order[i]);
+                sumR[box] += (long) ((color >> 16) & 0xFF) * weight;
+                sumG[box] += (long) ((color >> 8) & 0xFF) * weight;
+                sumB[box] += (long) (color & 0xFF) * weight;
+                weights[box] += weight;
+            }
+        }
+        return QuantizedPalette.fromClusters(sumR, sumG, sumB, weights, boxes);
+    }
+
+    private static void sortByChannel(ColorHistogram histogram, int[] order, int[] scratch, int[] buckets,
+                                      int start, int end, int shift) {
+        Arrays.fill(buckets, 0);
+        for (int i = start; i < end; i++) {
+            buckets[((histogram.getColor(order[i]) >> shift) & 0xFF) + 1]++;
+        }
+        for (int i = 1; i < buckets.length; i++) {
+            buckets[i] += buckets[i - 1];
+        }
+        for (int i = start; i < end; i++) {
+            int entry = order[i];
+            scratch[start + buckets[(histogram.getColor(entry) >> shift) & 0xFF]++] = entry;
+        }
+        System.arraycopy(scratch, start, order, start, end - start);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.relwallpaper.ui.utils;
+
+final class Oklab {
+
+    private static final float[] LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < LINEAR.length; i++) {
+            double channel = i / 255.0;
+            LINEAR[i] = (float) (channel <= 0.04045 ? channel / 12.92 : Math.pow((channel + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private Oklab() {
+    }
+
+    static void fromColor(int color, float[] out, int offset) {
+        float r = LINEAR[(color >> 16) & 0xFF];
+        float g = LINEAR[(color >> 8) & 0xFF];
+        float b = LINEAR[color & 0xFF];
+
+        double l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+        double m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+        double s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+
+        out[offset] = (float) (0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s);
+        out[offset + 1] = (float) (1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s);
+        out[offset + 2] = (float) (0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.Random;
+
+public final class OklabKMeansQuantizer implements ColorQuantizer {
+
+    private static final int MAX_ITERATIONS = 20;
+    private static final double CONVERGED_SHIFT = 1e-4;
+    private static final long SEED = 0x5EED;
+
+    private final int maxIterations;
+    private final long seed;
+    private int iterations;
+
+    public OklabKMeansQuantizer() {
+        this(MAX_ITERATIONS, SEED);
+    }
+
+    public OklabKMeansQuantizer(int maxIterations, long seed) {
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public QuantizedPalette quantize(ColorHistogram histogram, int maxColors) {
+        int size = histogram.size();
+        iterations = 0;
+        if (size == 0 || maxColors <= 0) {
+            return QuantizedPalette.empty();
+        }
+
+        float[] lab = new float[size * 3];
+        for (int i = 0; i < size; i++) {
+            Oklab.fromColor(histogram.getColor(i), lab, i * 3);
+        }
+
+        float[] centroids = new float[maxColors * 3];
+        int clusters = seed(histogram, lab, maxColors, centroids);
+
+        int[] assignments = new int[size];
+        double[] sums = new double[clusters * 3];
+        long[] weights = new long[clusters];
+        boolean moved = true;
+        while (moved && iterations < maxIterations) {
+            iterations++;
+            moved = false;
+            for (int c = 0; c < clusters * 3; c++) {
+                sums[c] = 0;
+            }
+            for (int c = 0; c < clusters; c++) {
+                weights[c] = 0;
+            }
+            for (int i = 0; i < size; i++) {
+                int nearest = nearest(lab, i * 3, centroids, clusters);
+                assignments[i] = nearest;
+                int weight = histogram.getWeight(i);
+                sums[nearest * 3] += (double) lab[i * 3] * weight;
+                sums[nearest * 3 + 1] += (double) lab[i * 3 + 1] * weight;
+                sums[nearest * 3 + 2] += (double) lab[i * 3 + 2] * weight;
+                weights[nearest] += weight;
+            }
+            for (int c = 0; c < clusters; c++) {
+                if (weights[c] == 0) continue;
+                float l = (float) (sums[c * 3] / weights[c]);
+                float a = (float) (sums[c * 3 + 1] / weights[c]);
+                float b = (float) (sums[c * 3 + 2] / weights[c]);
+                float dl = l - centroids[c * 3];
+                float da = a - centroids[c * 3 + 1];
+                float db = b - centroids[c * 3 + 2];
+                if (dl * dl + da * da + db * db > CONVERGED_SHIFT) {
+                    moved = true;
+                }
+                centroids[c * 3] = l;
+                centroids[c * 3 + 1] = a;
+                centroids[c * 3 + 2] = b;
+            }
+        }
+
+        long[] sumR = new long[clusters];
+        long[] sumG = new long[clusters];
+        long[] sumB = new long[clusters];
+        for (int c = 0; c < clusters; c++) {
+            weights[c] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int c = assignments[i];
+            int color = histogram.getColor(i);
+            int weight = histogram.getWeight(i);
+            sumR[c] += (long) ((color >> 16) & 0xFF) * weight;
+            sumG[c] += (long) ((color >> 8) & 0xFF) * weight;
+            sumB[c] += (long) (color & 0xFF) * weight;
+            weights[c] += weight;
+        }
+        return QuantizedPalette.fromClusters(sumR, sumG, sumB, weights, clusters);
+    }
+
+    private int seed(ColorHistogram histogram, float[] lab, int maxColors, float[] centroids) {
+        int size = histogram.size();
+        int heaviest = 0;
+        for (int i = 1; i < size; i++) {
+            if (histogram.getWeight(i) > histogram.getWeight(heaviest)) {
+                heaviest = i;
+            }
+        }
+        System.arraycopy(lab, heaviest * 3, centroids, 0, 3);
+
+        double[] distances = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            distances[i] = distance(lab, i * 3, centroids, 0) * histogram.getWeight(i);
+            total += distances[i];
+        }
+
+        Random random = new Random(seed);
+        int clusters = 1;
+        while (clusters < maxColors && total > 0) {
+            double target = random.nextDouble() * total;
+            int chosen = size - 1;
+            double cumulative = 0;
+            for (int i = 0; i < size; i++) {
+                cumulative += distances[i];
+                if (cumulative > target) {
+                    chosen = i;
+                    break;
+                }
+            }
+            System.arraycopy(lab, chosen * 3, centroids, clusters * 3, 3);
+
+            total = 0;
+            for (int i = 0; i < size; i++) {
+                double distance = distance(lab, i * 3, centroids, clusters * 3) * histogram.getWeight(i);
+                if (distance < distances[i]) {
+                    distances[i] = distance;
+                }
+                total += distances[i];
+            }
+            clusters++;
+        }
+        return clusters;
+    }
+
+    private static int nearest(float[] lab, int offset, float[] centroids, int clusters) {
+        int nearest = 0;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int c = 0; c < clusters; c++) {
+            double distance = distance(lab, offset, centroids, c * 3);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = c;
+            }
+        }
+        return nearest;
+    }
+
+    private static double distance(float[] lab, int offset, float[] centroids, int centroid) {
+        float dl = lab[offset] - centroids[centroid];
+        float da = lab[offset + 1] - centroids[centroid + 1];
+        float db = lab[offset + 2] - centroids[centroid + 2];
+        return dl * dl + da * da + db * db;
+    }
+}
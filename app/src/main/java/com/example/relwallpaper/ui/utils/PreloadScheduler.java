@@ -0,0 +1,289 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class PreloadScheduler<T> {
+
+    public enum Priority {
+        NEXT_PAGE,
+        CAROUSEL,
+        SPECULATIVE
+    }
+
+    public interface Loader<T> {
+        Handle start(T request, Completion completion);
+    }
+
+    public interface Handle {
+        void cancel();
+    }
+
+    public interface Completion {
+        void onComplete(boolean success, boolean fromCache);
+    }
+
+    public static final class Batch {
+        private final PreloadScheduler<?> scheduler;
+        private boolean cancelled;
+
+        Batch(PreloadScheduler<?> scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        public void cancel() {
+            scheduler.cancelBatch(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    public static final class Metrics {
+        public final long requested;
+        public final long deduplicated;
+        public final long dropped;
+        public final long completed;
+        public final long alreadyCached;
+        public final long failed;
+        public final long cancelled;
+        public final long displayed;
+        public final long hits;
+        public final long wasted;
+
+        Metrics(long requested, long deduplicated, long dropped, long completed, long alreadyCached,
+                long failed, long cancelled, long displayed, long hits, long wasted) {
+            this.requested = requested;
+            this.deduplicated = deduplicated;
+            this.dropped = dropped;
+            this.completed = completed;
+            this.alreadyCached = alreadyCached;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.displayed = displayed;
+            this.hits = hits;
+            this.wasted = wasted;
+        }
+
+        public double hitRate() {
+            return displayed == 0 ? 0 : (double) hits / displayed;
+        }
+
+        @Override
+        public String toString() {
+            return "requested=" + requested + " deduplicated=" + deduplicated + " dropped=" + dropped
+                    + " completed=" + completed + " alreadyCached=" + alreadyCached + " failed=" + failed
+                    + " cancelled=" + cancelled + " displayed=" + displayed + " hits=" + hits
+                    + " wasted=" + wasted + " hitRate=" + String.format(Locale.US, "%.2f", hitRate());
+        }
+    }
+
+    private static final int STATE_QUEUED = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_DONE = 2;
+
+    private final class Entry implements Completion {
+        final String key;
+        final T request;
+        final long sequence;
+        final List<Batch> owners = new ArrayList<>(1);
+        Priority priority;
+        int state = STATE_QUEUED;
+        Handle handle;
+
+        Entry(String key, T request, Priority priority, long sequence) {
+            this.key = key;
+            this.request = request;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void onComplete(boolean success, boolean fromCache) {
+            complete(this, success, fromCache);
+        }
+    }
+
+    private final Loader<T> loader;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> queue = new TreeSet<>(new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int byPriority = a.priority.compareTo(b.priority);
+            return byPriority != 0 ? byPriority : Long.compare(a.sequence, b.sequence);
+        }
+    });
+    private final LinkedHashMap<String, Boolean> completedKeys;
+
+    private long sequence;
+    private int running;
+    private long requested;
+    private long deduplicated;
+    private long dropped;
+    private long completed;
+    private long alreadyCached;
+    private long failed;
+    private long cancelled;
+    private long displayed;
+    private long hits;
+    private long wasted;
+
+    public PreloadScheduler(Loader<T> loader, int maxInFlight, int maxQueued, int rememberCompleted) {
+        this.loader = loader;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.completedKeys = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() > rememberCompleted) {
+                    wasted++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Batch newBatch() {
+        return new Batch(this);
+    }
+
+    public synchronized boolean submit(Batch batch, String key, T request, Priority priority) {
+        if (batch.scheduler != this || batch.cancelled || key == null || request == null) return false;
+
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            deduplicated++;
+            if (!existing.owners.contains(batch)) {
+                existing.owners.add(batch);
+            }
+            if (existing.state == STATE_QUEUED && priority.compareTo(existing.priority) < 0) {
+                queue.remove(existing);
+                existing.priority = priority;
+                queue.add(existing);
+            }
+            return true;
+        }
+        if (completedKeys.containsKey(key)) {
+            deduplicated++;
+            return true;
+        }
+
+        Entry entry = new Entry(key, request, priority, sequence++);
+        if (queue.size() >= maxQueued) {
+            Entry lowest = queue.last();
+            if (queue.comparator().compare(entry, lowest) >= 0) {
+                dropped++;
+                return false;
+            }
+            queue.remove(lowest);
+            entries.remove(lowest.key);
+            dropped++;
+        }
+
+        entry.owners.add(batch);
+        entries.put(key, entry);
+        queue.add(entry);
+        requested++;
+        pump();
+        return true;
+    }
+
+    public synchronized void recordDisplay(String key) {
+        if (key == null) return;
+        displayed++;
+        if (completedKeys.remove(key) != null) {
+            hits++;
+        }
+    }
+
+    public synchronized void cancelAll() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            cancelEntry(entry);
+        }
+        entries.clear();
+        queue.clear();
+    }
+
+    public synchronized Metrics getMetrics() {
+        return new Metrics(requested, deduplicated, dropped, completed, alreadyCached,
+                failed, cancelled, displayed, hits, wasted);
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    private synchronized void cancelBatch(Batch batch) {
+        if (batch.cancelled) return;
+        batch.cancelled = true;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.owners.remove(batch) && entry.owners.isEmpty()) {
+                iterator.remove();
+                cancelEntry(entry);
+            }
+        }
+        pump();
+    }
+
+    private void cancelEntry(Entry entry) {
+        if (entry.state == STATE_QUEUED) {
+            queue.remove(entry);
+        } else if (entry.state == STATE_RUNNING) {
+            running--;
+            wasted++;
+            if (entry.handle != null) {
+                entry.handle.cancel();
+            }
+        } else {
+            return;
+        }
+        entry.state = STATE_DONE;
+        cancelled++;
+    }
+
+    private synchronized void complete(Entry entry, boolean success, boolean fromCache) {
+        if (entry.state != STATE_RUNNING) return;
+        entry.state = STATE_DONE;
+        running--;
+        entries.remove(entry.key);
+        if (success) {
+            completed++;
+            if (fromCache) {
+                alreadyCached++;
+            }
+            completedKeys.put(entry.key, Boolean.TRUE);
+        } else {
+            failed++;
+        }
+        pump();
+    }
+
+    private void pump() {
+        while (running < maxInFlight && !queue.isEmpty()) {
+            Entry entry = queue.pollFirst();
+            entry.state = STATE_RUNNING;
+            running++;
+            Handle handle = loader.start(entry.request, entry);
+            if (entry.state == STATE_RUNNING) {
+                entry.handle = handle;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class QuantizedPalette {
+
+    private static final float MIN_THEME_LIGHTNESS = 0.35f;
+    private static final float MAX_THEME_LIGHTNESS = 0.85f;
+    private static final float MIN_THEME_CHROMA = 0.05f;
+
+    private final int[] colors;
+    private final int[] populations;
+
+    private QuantizedPalette(int[] colors, int[] populations) {
+        this.colors = colors;
+        this.populations = populations;
+    }
+
+    static QuantizedPalette empty() {
+        return new QuantizedPalette(new int[0], new int[0]);
+    }
+
+    static QuantizedPalette fromClusters(long[] sumR, long[] sumG, long[] sumB, long[] weights, int clusters) {
+        int size = 0;
+        for (int c = 0; c < clusters; c++) {
+            if (weights[c] > 0) size++;
+        }
+        int[] colors = new int[size];
+        int[] populations = new int[size];
+        int index = 0;
+        for (int c = 0; c < clusters; c++) {
+            long weight = weights[c];
+            if (weight <= 0) continue;
+            long half = weight / 2;
+            int r = (int) ((sumR[c] + half) / weight);
+            int g = (int) ((sumG[c] + half) / weight);
+            int b = (int) ((sumB[c] + half) / weight);
+            int color = 0xFF000000 | (r << 16) | (g << 8) | b;
+            int population = (int) weight;
+
+            int j = index - 1;
+            while (j >= 0 && populations[j] < population) {
+                colors[j + 1] = colors[j];
+                populations[j + 1] = populations[j];
+                j--;
+            }
+            colors[j + 1] = color;
+            populations[j + 1] = population;
+            index++;
+        }
+        return new QuantizedPalette(colors, populations);
+    }
+
+    public int size() {
+        return colors.length;
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    public int getPopulation(int index) {
+        return populations[index];
+    }
+
+    public int getDominantColor(int fallback) {
+        return colors.length > 0 ? colors[0] : fallback;
+    }
+
+    public int getThemeColor(int fallback) {
+        float[] lab = new float[3];
+        double bestScore = 0;
+        int best = -1;
+        for (int i = 0; i < colors.length; i++) {
+            Oklab.fromColor(colors[i], lab, 0);
+            double chroma = Math.sqrt(lab[1] * lab[1] + lab[2] * lab[2]);
+            if (lab[0] < MIN_THEME_LIGHTNESS || lab[0] > MAX_THEME_LIGHTNESS || chroma < MIN_THEME_CHROMA) continue;
+            double score = chroma * Math.sqrt(populations[i]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best >= 0 ? colors[best] : getDominantColor(fallback);
+    }
+
+    public List<String> toHexList() {
+        List<String> hex = new ArrayList<>(colors.length);
+        for (int color : colors) {
+            hex.add(toHex(color));
+        }
+        return hex;
+    }
+
+    public static String toHex(int color) {
+        return String.format("#%06X", color & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.relwallpaper.ui.utils;
+
+import androidx.annotation.NonNull;
+
+public final class Thumbnail {
+
+    private final String url;
+
+    private Thumbnail(String url) {
+        this.url = url;
+    }
+
+    public static Thumbnail of(String url) {
+        return url == null || url.isEmpty() ? null : new Thumbnail(url);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Thumbnail && url.equals(((Thumbnail) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.Headers;
+import com.bumptech.glide.load.model.LazyHeaders;
+import com.bumptech.glide.load.model.ModelCache;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+import com.bumptech.glide.request.target.Target;
+import com.example.relwallpaper.data.StorageImageUrls;
+import java.io.InputStream;
+
+public class ThumbnailUrlLoader extends BaseGlideUrlLoader<Thumbnail> {
+
+    private static final Headers HEADERS = new LazyHeaders.Builder()
+            .addHeader("Accept", Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                    ? "image/avif,image/webp,image/*;q=0.8"
+                    : "image/webp,image/*;q=0.8")
+            .build();
+
+    ThumbnailUrlLoader(ModelLoader<GlideUrl, InputStream> concreteLoader, ModelCache<Thumbnail, GlideUrl> modelCache) {
+        super(concreteLoader, modelCache);
+    }
+
+    @Override
+    protected String getUrl(Thumbnail model, int width, int height, Options options) {
+        if (width == Target.SIZE_ORIGINAL || height == Target.SIZE_ORIGINAL) {
+            return model.getUrl();
+        }
+        return StorageImageUrls.render(model.getUrl(), width, height);
+    }
+
+    @Nullable
+    @Override
+    protected Headers getHeaders(Thumbnail model, int width, int height, Options options) {
+        return HEADERS;
+    }
+
+    @Override
+    public boolean handles(@NonNull Thumbnail model) {
+        return true;
+    }
+
+    public static class Factory implements ModelLoaderFactory<Thumbnail, InputStream> {
+
+        private final ModelCache<Thumbnail, GlideUrl> modelCache = new ModelCache<>(500);
+
+        @NonNull
+        @Override
+        public ModelLoader<Thumbnail, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new ThumbnailUrlLoader(multiFactory.build(GlideUrl.class, InputStream.class), modelCache);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
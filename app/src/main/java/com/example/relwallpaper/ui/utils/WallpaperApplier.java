@@ -0,0 +1,115 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.app.WallpaperManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.util.DisplayMetrics;
+import androidx.annotation.WorkerThread;
+import com.bumptech.glide.Glide;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+
+public class WallpaperApplier {
+    private static final int REGION_DECODE_FACTOR = 4;
+
+    private final Context context;
+    private final WallpaperManager wallpaperManager;
+
+    public WallpaperApplier(Context context) {
+        this.context = context.getApplicationContext();
+        this.wallpaperManager = WallpaperManager.getInstance(this.context);
+    }
+
+    @WorkerThread
+    public void apply(String imageUrl, int which) throws IOException {
+        File source = fetchOriginal(imageUrl);
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getPath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Unsupported image");
+        }
+
+        int[] desired = desiredSize();
+        int[] crop = centerCrop(bounds.outWidth, bounds.outHeight, desired[0], desired[1]);
+        Rect cropRect = new Rect(crop[0], crop[1], crop[2], crop[3]);
+
+        if ((long) bounds.outWidth * bounds.outHeight <= (long) desired[0] * desired[1] * REGION_DECODE_FACTOR) {
+            try (InputStream in = new FileInputStream(source)) {
+                wallpaperManager.setStream(in, cropRect, true, which);
+            }
+            return;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(cropRect.width(), cropRect.height(), desired[0], desired[1]);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = decodeRegion(source, cropRect, options);
+        try {
+            wallpaperManager.setBitmap(bitmap, null, true, which);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private File fetchOriginal(String imageUrl) throws IOException {
+        try {
+            return Glide.with(context).downloadOnly().load(imageUrl).submit().get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to download image", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading image", e);
+        }
+    }
+
+    private Bitmap decodeRegion(File source, Rect cropRect, BitmapFactory.Options options) throws IOException {
+        BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(source.getPath(), false);
+        try {
+            Bitmap bitmap = decoder.decodeRegion(cropRect, options);
+            if (bitmap == null) {
+                throw new IOException("Failed to decode image");
+            }
+            return bitmap;
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    private int[] desiredSize() {
+        int width = wallpaperManager.getDesiredMinimumWidth();
+        int height = wallpaperManager.getDesiredMinimumHeight();
+        if (width <= 0 || height <= 0) {
+            DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+            width = metrics.widthPixels;
+            height = metrics.heightPixels;
+        }
+        return new int[]{width, height};
+    }
+
+    static int[] centerCrop(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        if ((long) sourceWidth * targetHeight > (long) sourceHeight * targetWidth) {
+            int width = (int) ((long) sourceHeight * targetWidth / targetHeight);
+            int left = (sourceWidth - width) / 2;
+            return new int[]{left, 0, left + width, sourceHeight};
+        }
+        int height = (int) ((long) sourceWidth * targetHeight / targetWidth);
+        int top = (sourceHeight - height) / 2;
+        return new int[]{0, top, sourceWidth, top + height};
+    }
+
+    static int sampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
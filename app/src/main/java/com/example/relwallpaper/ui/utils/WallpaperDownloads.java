@@ -0,0 +1,564 @@
+package com.example.relwallpaper.ui.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.relwallpaper.BuildConfig;
+import com.example.relwallpaper.ui.MyApplication;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+public class WallpaperDownloads {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    public static final class Download {
+        public final String id;
+        public final String name;
+        public final State state;
+        public final long bytesDownloaded;
+        public final long totalBytes;
+        @Nullable
+        public final Uri uri;
+        @Nullable
+        public final String error;
+
+        Download(String id, String name, State state, long bytesDownloaded, long totalBytes,
+                 @Nullable Uri uri, @Nullable String error) {
+            this.id = id;
+            this.name = name;
+            this.state = state;
+            this.bytesDownloaded = bytesDownloaded;
+            this.totalBytes = totalBytes;
+            this.uri = uri;
+            this.error = error;
+        }
+
+        public boolean isActive() {
+            return state == State.QUEUED || state == State.RUNNING;
+        }
+
+        public int getProgressPercent() {
+            return totalBytes > 0 ? (int) (bytesDownloaded * 100 / totalBytes) : -1;
+        }
+    }
+
+    public interface Listener {
+        void onDownloadFinished(Download download);
+    }
+
+    private static final class Task {
+        final String id;
+        final String url;
+        final String name;
+        State state = State.QUEUED;
+        long bytes;
+        long total = -1;
+        Uri uri;
+        String error;
+        int attempts;
+        long notBefore;
+        CancellationSignal signal;
+
+        Task(String id, String url, String name) {
+            this.id = id;
+            this.url = url;
+            this.name = name;
+        }
+
+        Download snapshot() {
+            return new Download(id, name, state, bytes, total, uri, error);
+        }
+    }
+
+    private static final class Pending {
+        String id;
+        String url;
+        String name;
+
+        Pending(String id, String url, String name) {
+            this.id = id;
+            this.url = url;
+            this.name = name;
+        }
+    }
+
+    private static final String TAG = "WallpaperDownloads";
+    private static final String PREFS_NAME = "wallpaper_downloads";
+    private static final String KEY_QUEUE = "queue";
+    private static final String PARTIAL_DIR = "downloads";
+    private static final int UNMETERED_TRANSFERS = 3;
+    private static final int METERED_TRANSFERS = 1;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 2_000;
+    private static final long CHUNK_BYTES = 256 * 1024;
+    private static final long PUBLISH_INTERVAL_MS = 250;
+
+    private static WallpaperDownloads instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+    private final OkHttpClient client;
+    private final GallerySaver gallerySaver;
+    private final DownloadNotifier notifier;
+    private final File partialDir;
+    private final ExecutorService executor = Executors.newFixedThreadPool(UNMETERED_TRANSFERS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final MutableLiveData<List<Download>> downloads = new MutableLiveData<>(Collections.emptyList());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private int running;
+    private int maxTransfers;
+    private long lastPublished;
+    private boolean resumed;
+
+    private WallpaperDownloads(Context context) {
+        this.context = context.getApplicationContext();
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.client = MyApplication.getHttpClient(context).newBuilder().cache(null).build();
+        this.gallerySaver = new GallerySaver(this.context);
+        this.notifier = new DownloadNotifier(this.context);
+        this.partialDir = new File(this.context.getFilesDir(), PARTIAL_DIR);
+        this.maxTransfers = currentTransferLimit();
+
+        ConnectivityManager connectivityManager = this.context.getSystemService(ConnectivityManager.class);
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                onNetworkChanged();
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                onNetworkChanged();
+            }
+        });
+    }
+
+    public static synchronized WallpaperDownloads getInstance(Context context) {
+        if (instance == null) {
+            instance = new WallpaperDownloads(context);
+        }
+        return instance;
+    }
+
+    public LiveData<List<Download>> getDownloads() {
+        return downloads;
+    }
+
+    public synchronized boolean enqueue(String id, String url, String name) {
+        if (url == null || url.isEmpty()) return false;
+        String key = id != null && !id.isEmpty() ? id : url;
+        Task existing = tasks.get(key);
+        if (existing != null && (existing.state == State.QUEUED || existing.state == State.RUNNING)) {
+            return false;
+        }
+        tasks.remove(key);
+        tasks.put(key, new Task(key, url, name));
+        persist();
+        publish(true);
+        pump();
+        return true;
+    }
+
+    public synchronized void resume() {
+        if (resumed) return;
+        resumed = true;
+        for (Pending pending : restore()) {
+            enqueue(pending.id, pending.url, pending.name);
+        }
+        executor.execute(this::deleteOrphanedPartials);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void cancel(String id) {
+        Download cancelled = null;
+        synchronized (this) {
+            Task task = tasks.get(id);
+            if (task == null) return;
+            if (task.state == State.QUEUED) {
+                task.state = State.CANCELLED;
+                deletePartial(task);
+                cancelled = finished(task);
+                publish(true);
+            } else if (task.state == State.RUNNING) {
+                task.signal.cancel();
+            }
+        }
+        if (cancelled != null) {
+            notifyFinished(cancelled);
+        }
+    }
+
+    public synchronized void forget(String id) {
+        Task task = tasks.get(id);
+        if (task != null && task.state != State.QUEUED && task.state != State.RUNNING) {
+            tasks.remove(id);
+            publish(true);
+        }
+    }
+
+    private synchronized void onNetworkChanged() {
+        int limit = currentTransferLimit();
+        if (limit != maxTransfers) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Transfer limit " + maxTransfers + " -> " + limit);
+            }
+            maxTransfers = limit;
+            pump();
+        }
+    }
+
+    private synchronized void pump() {
+        long now = SystemClock.uptimeMillis();
+        long nextRetry = Long.MAX_VALUE;
+        for (Task task : tasks.values()) {
+            if (running >= maxTransfers) break;
+            if (task.state != State.QUEUED) continue;
+            if (task.notBefore > now) {
+                nextRetry = Math.min(nextRetry, task.notBefore);
+                continue;
+            }
+            task.state = State.RUNNING;
+            task.signal = new CancellationSignal();
+            running++;
+            executor.execute(() -> run(task));
+        }
+        if (nextRetry != Long.MAX_VALUE) {
+            mainHandler.postAtTime(this::pump, nextRetry);
+        }
+        publish(true);
+    }
+
+    private void run(Task task) {
+        Uri uri = null;
+        String error = null;
+        try {
+            uri = transfer(task);
+        } catch (OperationCanceledException ignored) {
+        } catch (IOException | RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (!task.signal.isCanceled()) {
+                Log.w(TAG, "Download " + task.id + " failed: " + error);
+            }
+        }
+
+        Download finished = null;
+        synchronized (this) {
+            running--;
+            if (task.signal.isCanceled()) {
+                task.state = State.CANCELLED;
+                deletePartial(task);
+            } else if (uri != null) {
+                task.state = State.COMPLETED;
+                task.uri = uri;
+                task.bytes = Math.max(task.bytes, task.total);
+            } else if (maxTransfers == 0 || currentTransferLimit() == 0) {
+                task.state = State.QUEUED;
+            } else if (++task.attempts < MAX_ATTEMPTS) {
+                task.state = State.QUEUED;
+                task.notBefore = SystemClock.uptimeMillis() + RETRY_DELAY_MS * task.attempts;
+            } else {
+                task.state = State.FAILED;
+                task.error = error;
+            }
+            if (task.state != State.QUEUED) {
+                finished = finished(task);
+            }
+            pump();
+        }
+        if (finished != null) {
+            notifyFinished(finished);
+        }
+    }
+
+    private Download finished(Task task) {
+        persist();
+        Download download = task.snapshot();
+        mainHandler.post(() -> notifier.onFinished(download));
+        return download;
+    }
+
+    private void notifyFinished(Download download) {
+        for (Listener listener : listeners) {
+            listener.onDownloadFinished(download);
+        }
+    }
+
+    private Uri transfer(Task task) throws IOException {
+        Uri cached = gallerySaver.saveCached(task.url, task.name, null, task.signal);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!partialDir.isDirectory() && !partialDir.mkdirs()) {
+            throw new IOException("Failed to create " + partialDir);
+        }
+        File partial = partialFile(task);
+        File validatorFile = validatorFile(task);
+        long offset = partial.length();
+        String validator = offset > 0 ? readValidator(validatorFile) : null;
+
+        Request.Builder request = new Request.Builder().url(task.url);
+        if (offset > 0) {
+            request.header("Range", "bytes=" + offset + "-");
+            if (validator != null && !validator.isEmpty()) {
+                request.header("If-Range", validator);
+            }
+        }
+
+        Call call = client.newCall(request.build());
+        task.signal.setOnCancelListener(call::cancel);
+        try (Response response = call.execute()) {
+            long total;
+            boolean alreadyComplete = false;
+            if (response.code() == 206 && offset > 0) {
+                long[] range = parseContentRange(response.header("Content-Range"));
+                if (range == null || range[0] != offset) {
+                    partial.delete();
+                    throw new IOException("Unexpected range " + response.header("Content-Range"));
+                }
+                total = range[2];
+            } else if (response.code() == 416 && offset > 0) {
+                long[] range = parseContentRange(response.header("Content-Range"));
+                if (range == null || range[2] != offset) {
+                    partial.delete();
+                    throw new IOException("Partial download no longer matches the original");
+                }
+                total = offset;
+                alreadyComplete = true;
+            } else if (response.isSuccessful()) {
+                offset = 0;
+                ResponseBody body = response.body();
+                total = body.contentLength();
+                String newValidator = response.header("ETag", response.header("Last-Modified"));
+                writeValidator(validatorFile, newValidator);
+            } else {
+                throw new IOException("HTTP " + response.code());
+            }
+
+            synchronized (this) {
+                task.bytes = offset;
+                task.total = total;
+                publish(true);
+            }
+
+            if (!alreadyComplete) {
+                copy(response.body(), partial, offset, total, task);
+            }
+        } finally {
+            task.signal.setOnCancelListener(null);
+        }
+
+        Uri uri = gallerySaver.save(partial, task.name, null, task.signal);
+        deletePartial(task);
+        return uri;
+    }
+
+    private void copy(ResponseBody body, File partial, long offset, long total, Task task) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(partial, "rw");
+             FileChannel target = file.getChannel();
+             ReadableByteChannel source = Channels.newChannel(body.byteStream())) {
+            file.setLength(offset);
+            long position = offset;
+            while (true) {
+                task.signal.throwIfCanceled();
+                long copied = target.transferFrom(source, position, CHUNK_BYTES);
+                if (copied <= 0) break;
+                position += copied;
+                synchronized (this) {
+                    task.bytes = position;
+                    publish(false);
+                }
+            }
+            if (total >= 0 && position < total) {
+                throw new IOException("Connection closed after " + position + " of " + total + " bytes");
+            }
+        }
+    }
+
+    @Nullable
+    private static String readValidator(File file) {
+        if (!file.isFile()) return null;
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) break;
+                read += count;
+            }
+            return new String(bytes, 0, read, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeValidator(File file, @Nullable String validator) throws IOException {
+        if (validator == null) {
+            file.delete();
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(validator.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private synchronized void deleteOrphanedPartials() {
+        File[] files = partialDir.listFiles();
+        if (files == null) return;
+        Set<String> keep = new HashSet<>();
+        for (Task task : tasks.values()) {
+            keep.add(partialFile(task).getName());
+            keep.add(validatorFile(task).getName());
+        }
+        for (File file : files) {
+            if (!keep.contains(file.getName()) && !file.delete()) {
+                Log.w(TAG, "Failed to delete orphaned " + file.getName());
+            }
+        }
+    }
+
+    private void deletePartial(Task task) {
+        partialFile(task).delete();
+        validatorFile(task).delete();
+    }
+
+    private File partialFile(Task task) {
+        return new File(partialDir, Integer.toHexString(task.id.hashCode()) + ".part");
+    }
+
+    private File validatorFile(Task task) {
+        return new File(partialDir, Integer.toHexString(task.id.hashCode()) + ".validator");
+    }
+
+    private List<Pending> restore() {
+        String json = prefs.getString(KEY_QUEUE, null);
+        if (json != null) {
+            try {
+                List<Pending> restored = gson.fromJson(json, new TypeToken<List<Pending>>() {}.getType());
+                if (restored != null) {
+                    return restored;
+                }
+            } catch (JsonParseException e) {
+                Log.w(TAG, "Discarding unreadable download queue", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private void persist() {
+        List<Pending> queue = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (task.state == State.QUEUED || task.state == State.RUNNING) {
+                queue.add(new Pending(task.id, task.url, task.name));
+            }
+        }
+        prefs.edit().putString(KEY_QUEUE, gson.toJson(queue)).apply();
+    }
+
+    private void publish(boolean force) {
+        long now = SystemClock.uptimeMillis();
+        if (!force && now - lastPublished < PUBLISH_INTERVAL_MS) return;
+        lastPublished = now;
+        List<Download> snapshot = new ArrayList<>(tasks.size());
+        for (Task task : tasks.values()) {
+            snapshot.add(task.snapshot());
+        }
+        downloads.postValue(Collections.unmodifiableList(snapshot));
+        mainHandler.post(() -> notifier.update(snapshot));
+    }
+
+    private int currentTransferLimit() {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        Network network = connectivityManager.getActiveNetwork();
+        NetworkCapabilities capabilities = network != null ? connectivityManager.getNetworkCapabilities(network) : null;
+        if (capabilities == null) {
+            return transferLimit(false, false);
+        }
+        return transferLimit(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET),
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED));
+    }
+
+    static int transferLimit(boolean connected, boolean unmetered) {
+        if (!connected) return 0;
+        return unmetered ? UNMETERED_TRANSFERS : METERED_TRANSFERS;
+    }
+
+    @Nullable
+    static long[] parseContentRange(@Nullable String header) {
+        if (header == null || !header.startsWith("bytes ")) return null;
+        String value = header.substring("bytes ".length()).trim();
+        int slash = value.indexOf('/');
+        if (slash < 0) return null;
+        try {
+            String range = value.substring(0, slash);
+            String length = value.substring(slash + 1);
+            long total = "*".equals(length) ? -1 : Long.parseLong(length);
+            if ("*".equals(range)) {
+                return new long[]{-1, -1, total};
+            }
+            int dash = range.indexOf('-');
+            if (dash <= 0) return null;
+            long start = Long.parseLong(range.substring(0, dash));
+            long end = Long.parseLong(range.substring(dash + 1));
+            if (end < start || (total >= 0 && end >= total)) return null;
+            return new long[]{start, end, total};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.Arrays;
+
+public final class WuQuantizer implements ColorQuantizer {
+
+    private static final int SIDE = (1 << ColorHistogram.BITS) + 1;
+    private static final int SHIFT = 8 - ColorHistogram.BITS;
+
+    private static final int RED = 0;
+    private static final int GREEN = 1;
+    private static final int BLUE = 2;
+
+    private static final class Box {
+        int r0, r1, g0, g1, b0, b1, volume;
+    }
+
+    private long[] weights;
+    private long[] momentsR;
+    private long[] momentsG;
+    private long[] momentsB;
+    private double[] moments;
+    private int cutLocation;
+
+    @Override
+    public QuantizedPalette quantize(ColorHistogram histogram, int maxColors) {
+        if (histogram.size() == 0 || maxColors <= 0) {
+            return QuantizedPalette.empty();
+        }
+        buildMoments(histogram);
+
+        Box[] boxes = new Box[maxColors];
+        for (int i = 0; i < maxColors; i++) {
+            boxes[i] = new Box();
+        }
+        boxes[0].r1 = SIDE - 1;
+        boxes[0].g1 = SIDE - 1;
+        boxes[0].b1 = SIDE - 1;
+
+        double[] variances = new double[maxColors];
+        int generated = maxColors;
+        int next = 0;
+        for (int i = 1; i < maxColors; i++) {
+            if (cut(boxes[next], boxes[i])) {
+                variances[next] = boxes[next].volume > 1 ? variance(boxes[next]) : 0;
+                variances[i] = boxes[i].volume > 1 ? variance(boxes[i]) : 0;
+            } else {
+                variances[next] = 0;
+                i--;
+            }
+            next = 0;
+            double largest = variances[0];
+            for (int j = 1; j <= i; j++) {
+                if (variances[j] > largest) {
+                    largest = variances[j];
+                    next = j;
+                }
+            }
+            if (largest <= 0) {
+                generated = i + 1;
+                break;
+            }
+        }
+
+        long[] sumR = new long[generated];
+        long[] sumG = new long[generated];
+        long[] sumB = new long[generated];
+        long[] counts = new long[generated];
+        for (int i = 0; i < generated; i++) {
+            sumR[i] = volume(boxes[i], momentsR);
+            sumG[i] = volume(boxes[i], momentsG);
+            sumB[i] = volume(boxes[i], momentsB);
+            counts[i] = volume(boxes[i], weights);
+        }
+        return QuantizedPalette.fromClusters(sumR, sumG, sumB, counts, generated);
+    }
+
+    private void buildMoments(ColorHistogram histogram) {
+        if (weights == null) {
+            int cells = SIDE * SIDE * SIDE;
+            weights = new long[cells];
+            momentsR = new long[cells];
+            momentsG = new long[cells];
+            momentsB = new long[cells];
+            moments = new double[cells];
+        } else {
+            Arrays.fill(weights, 0);
+            Arrays.fill(momentsR, 0);
+            Arrays.fill(momentsG, 0);
+            Arrays.fill(momentsB, 0);
+            Arrays.fill(moments, 0);
+        }
+
+        for (int i = 0; i < histogram.size(); i++) {
+            int color = histogram.getColor(i);
+            long weight = histogram.getWeight(i);
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            int index = index((r >> SHIFT) + 1, (g >> SHIFT) + 1, (b >> SHIFT) + 1);
+            weights[index] += weight;
+            momentsR[index] += r * weight;
+            momentsG[index] += g * weight;
+            momentsB[index] += b * weight;
+            moments[index] += weight * (double) (r * r + g * g + b * b);
+        }
+
+        long[] area = new long[SIDE];
+        long[] areaR = new long[SIDE];
+        long[] areaG = new long[SIDE];
+        long[] areaB = new long[SIDE];
+        double[] area2 = new double[SIDE];
+        for (int r = 1; r < SIDE; r++) {
+            for (int i = 0; i < SIDE; i++) {
+                area[i] = 0;
+                areaR[i] = 0;
+                areaG[i] = 0;
+                areaB[i] = 0;
+                area2[i] = 0;
+            }
+            for (int g = 1; g < SIDE; g++) {
+                long line = 0;
+                long lineR = 0;
+                long lineG = 0;
+                long lineB = 0;
+                double line2 = 0;
+                for (int b = 1; b < SIDE; b++) {
+                    int index = index(r, g, b);
+                    line += weights[index];
+                    lineR += momentsR[index];
+                    lineG += momentsG[index];
+                    lineB += momentsB[index];
+                    line2 += moments[index];
+
+                    area[b] += line;
+                    areaR[b] += lineR;
+                    areaG[b] += lineG;
+                    areaB[b] += lineB;
+                    area2[b] += line2;
+
+                    int previous = index(r - 1, g, b);
+                    weights[index] = weights[previous] + area[b];
+                    momentsR[index] = momentsR[previous] + areaR[b];
+                    momentsG[index] = momentsG[previous] + areaG[b];
+                    momentsB[index] = momentsB[previous] + areaB[b];
+                    moments[index] = moments[previous] + area2[b];
+                }
+            }
+        }
+    }
+
+    private boolean cut(Box one, Box two) {
+        long wholeR = volume(one, momentsR);
+        long wholeG = volume(one, momentsG);
+        long wholeB = volume(one, momentsB);
+        long wholeW = volume(one, weights);
+
+        double maxR = maximize(one, RED, one.r0 + 1, one.r1, wholeR, wholeG, wholeB, wholeW);
+        int cutR = cutLocation;
+        double maxG = maximize(one, GREEN, one.g0 + 1, one.g1, wholeR, wholeG, wholeB, wholeW);
+        int cutG = cutLocation;
+        double maxB = maximize(one, BLUE, one.b0 + 1, one.b1, wholeR, wholeG, wholeB, wholeW);
+        int cutB = cutLocation;
+
+        int direction;
+        if (maxR >= maxG && maxR >= maxB) {
+            if (cutR < 0) return false;
+            direction = RED;
+        } else if (maxG >= maxR && maxG >= maxB) {
+            direction = GREEN;
+        } else {
+            direction = BLUE;
+        }
+
+        two.r1 = one.r1;
+        two.g1 = one.g1;
+        two.b1 = one.b1;
+        switch (direction) {
+            case RED:
+                one.r1 = cutR;
+                two.r0 = one.r1;
+                two.g0 = one.g0;
+                two.b0 = one.b0;
+                break;
+            case GREEN:
+                one.g1 = cutG;
+                two.r0 = one.r0;
+                two.g0 = one.g1;
+                two.b0 = one.b0;
+                break;
+            default:
+                one.b1 = cutB;
+                two.r0 = one.r0;
+                two.g0 = one.g0;
+                two.b0 = one.b1;
+                break;
+        }
+        one.volume = (one.r1 - one.r0) * (one.g1 - one.g0) * (one.b1 - one.b0);
+        two.volume = (two.r1 - two.r0) * (two.g1 - two.g0) * (two.b1 - two.b0);
+        return true;
+    }
+
+    private double maximize(Box box, int direction, int first, int last,
+                            long wholeR, long wholeG, long wholeB, long wholeW) {
+        long bottomR = bottom(box, direction, momentsR);
+        long bottomG = bottom(box, direction, momentsG);
+        long bottomB = bottom(box, direction, momentsB);
+        long bottomW = bottom(box, direction, weights);
+
+        double max = 0;
+        cutLocation = -1;
+        for (int i = first; i < last; i++) {
+            long halfR = bottomR + top(box, direction, i, momentsR);
+            long halfG = bottomG + top(box, direction, i, momentsG);
+            long halfB = bottomB + top(box, direction, i, momentsB);
+            long halfW = bottomW + top(box, direction, i, weights);
+            if (halfW == 0) continue;
+
+            double score = ((double) halfR * halfR + (double) halfG * halfG + (double) halfB * halfB) / halfW;
+            halfR = wholeR - halfR;
+            halfG = wholeG - halfG;
+            halfB = wholeB - halfB;
+            halfW = wholeW - halfW;
+            if (halfW == 0) continue;
+
+            score += ((double) halfR * halfR + (double) halfG * halfG + (double) halfB * halfB) / halfW;
+            if (score > max) {
+                max = score;
+                cutLocation = i;
+            }
+        }
+        return max;
+    }
+
+    private double variance(Box box) {
+        long weight = volume(box, weights);
+        if (weight == 0) return 0;
+        double r = volume(box, momentsR);
+        double g = volume(box, momentsG);
+        double b = volume(box, momentsB);
+        double xx = moments[index(box.r1, box.g1, box.b1)]
+                - moments[index(box.r1, box.g1, box.b0)]
+                - moments[index(box.r1, box.g0, box.b1)]
+                + moments[index(box.r1, box.g0, box.b0)]
+                - moments[index(box.r0, box.g1, box.b1)]
+                + moments[index(box.r0, box.g1, box.b0)]
+                + moments[index(box.r0, box.g0, box.b1)]
+                - moments[index(box.r0, box.g0, box.b0)];
+        return xx - (r * r + g * g + b * b) / weight;
+    }
+
+    private static long volume(Box box, long[] moment) {
+        return moment[index(box.r1, box.g1, box.b1)]
+                - moment[index(box.r1, box.g1, box.b0)]
+                - moment[index(box.r1, box.g0, box.b1)]
+                + moment[index(box.r1, box.g0, box.b0)]
+                - moment[index(box.r0, box.g1, box.b1)]
+                + moment[index(box.r0, box.g1, box.b0)]
+                + moment[index(box.r0, box.g0, box.b1)]
+                - moment[index(box.r0, box.g0, box.b0)];
+    }
+
+    private static long bottom(Box box, int direction, long[] moment) {
+        switch (direction) {
+            case RED:
+                return -moment[index(box.r0, box.g1, box.b1)]
+                        + moment[index(box.r0, box.g1, box.b0)]
+                        + moment[index(box.r0, box.g0, box.b1)]
+                        - moment[index(box.r0, box.g0, box.b0)];
+            case GREEN:
+                return -moment[index(box.r1, box.g0, box.b1)]
+                        + moment[index(box.r1, box.g0, box.b0)]
+                        + moment[index(box.r0, box.g0, box.b1)]
+                        - moment[index(box.r0, box.g0, box.b0)];
+            default:
+                return -moment[index(box.r1, box.g1, box.b0)]
+                        + moment[index(box.r1, box.g0, box.b0)]
+                        + moment[index(box.r0, box.g1, box.b0)]
+                        - moment[index(box.r0, box.g0, box.b0)];
+        }
+    }
+
+    private static long top(Box box, int direction, int position, long[] moment) {
+        switch (direction) {
+            case RED:
+                return moment[index(position, box.g1, box.b1)]
+                        - moment[index(position, box.g1, box.b0)]
+                        - moment[index(position, box.g0, box.b1)]
+                        + moment[index(position, box.g0, box.b0)];
+            case GREEN:
+                return moment[index(box.r1, position, box.b1)]
+                        - moment[index(box.r1, position, box.b0)]
+                        - moment[index(box.r0, position, box.b1)]
+                        + moment[index(box.r0, position, box.b0)];
+            default:
+                return moment[index(box.r1, box.g1, position)]
+                        - moment[index(box.r1, box.g0, position)]
+                        - moment[index(box.r0, box.g1, position)]
+                        + moment[index(box.r0, box.g0, position)];
+        }
+    }
+
+    private static int index(int r, int g, int b) {
+        return (r * SIDE + g) * SIDE + b;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.relwallpaper.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StorageImageUrlsTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void render_fetchesResizedRenditionFromRenderEndpoint() throws Exception {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "image/webp")
+                .setBody(new Buffer().write(new byte[] {'R', 'I', 'F', 'F'})));
+        String original = server.url("/storage/v1/object/public/wallpapers/user 1/dunes.jpg").toString();
+
+        String rendition = StorageImageUrls.render(original, 360, 780);
+
+        try (Response response = new OkHttpClient().newCall(new Request.Builder().url(rendition).build()).execute()) {
+            assertEquals("image/webp", response.header("Content-Type"));
+            assertEquals(4, response.body().bytes().length);
+        }
+        RecordedRequest request = server.takeRequest();
+        HttpUrl url = request.getRequestUrl();
+        assertEquals("/storage/v1/render/image/public/wallpapers/user%201/dunes.jpg", url.encodedPath());
+        assertEquals("360", url.queryParameter("width"));
+        assertEquals("780", url.queryParameter("height"));
+        assertEquals("cover", url.queryParameter("resize"));
+        assertEquals(String.valueOf(StorageImageUrls.DEFAULT_QUALITY), url.queryParameter("quality"));
+    }
+
+    @Test
+    public void render_clampsDimensionsPreservingAspectAndQuality() {
+        HttpUrl url = HttpUrl.get(StorageImageUrls.render(
+                "https://x.supabase.co/storage/v1/object/public/wallpapers/a.png", 4000, 9000, 5));
+
+        assertEquals("1111", url.queryParameter("width"));
+        assertEquals("2500", url.queryParameter("height"));
+        assertEquals("20", url.queryParameter("quality"));
+    }
+
+    @Test
+    public void render_leavesOtherUrlsUntouched() {
+        String external = "https://cdn.example.com/images/a.png";
+        String privateObject = "https://x.supabase.co/storage/v1/object/sign/wallpapers/a.png?token=t";
+
+        assertEquals(external, StorageImageUrls.render(external, 100, 100));
+        assertEquals(privateObject, StorageImageUrls.render(privateObject, 100, 100));
+        assertEquals(null, StorageImageUrls.render(null, 100, 100));
+    }
+}
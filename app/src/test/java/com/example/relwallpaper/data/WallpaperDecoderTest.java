@@ -0,0 +1,47 @@
+package com.example.relwallpaper.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.relwallpaper.ui.home.model.Wallpaper;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class WallpaperDecoderTest {
+
+    @Test
+    public void decodeList_mapsColumnsAndSkipsUnknownFields() throws IOException {
+        String json = "[{\"id\":42,\"name\":\"Dunes\",\"image_url\":\"https://x/y.jpg\","
+                + "\"width\":1080,\"height\":2400,"
+                + "\"created_at\":\"2025-01-01T00:00:00+00:00\",\"tags\":[\"Nature\",null],"
+                + "\"color_palette\":[\"#112233\"],\"extra\":{\"a\":[1,2]},"
+                + "\"users\":{\"username\":\"rel\",\"id\":\"u1\"}},"
+                + "{\"id\":\"b\",\"name\":null,\"users\":null,\"description\":\"d\"}]";
+
+        List<Wallpaper> wallpapers = WallpaperDecoder.decodeList(new StringReader(json));
+
+        assertEquals(2, wallpapers.size());
+        Wallpaper first = wallpapers.get(0);
+        assertEquals("42", first.getId());
+        assertEquals("Dunes", first.getName());
+        assertEquals("2025-01-01T00:00:00+00:00", first.getCreatedAt());
+        assertEquals(Arrays.asList("Nature"), first.getTags());
+        assertEquals(Arrays.asList("#112233"), first.getColorPalette());
+        assertEquals("rel", first.getUsername());
+        assertEquals(1080, first.getWidth());
+        assertEquals(2400, first.getHeight());
+
+        Wallpaper second = wallpapers.get(1);
+        assertNull(second.getName());
+        assertNull(second.getUsername());
+        assertEquals("d", second.getDescription());
+    }
+
+    @Test
+    public void decodeList_emptyArray() throws IOException {
+        assertEquals(0, WallpaperDecoder.decodeList(new StringReader("[]")).size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.relwallpaper.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WallpaperSearchTest {
+
+    private MockWebServer server;
+    private WallpaperSearch search;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        String baseUrl = server.url("/").toString();
+        SupabaseGateway gateway = new SupabaseGateway(baseUrl, "test-key", new OkHttpClient(), () -> null);
+        search = new WallpaperSearch(gateway, "*,users(username)");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void search_callsRpcWithPagingArguments() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        assertEquals(200, runSearch("  sunset   hills ", 20, 40));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/rest/v1/rpc/search_wallpapers", request.getRequestUrl().encodedPath());
+        assertEquals("*,users(username)", request.getRequestUrl().queryParameter("select"));
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("\"search_query\":\"sunset hills\""));
+        assertTrue(body.contains("\"page_limit\":20"));
+        assertTrue(body.contains("\"page_offset\":40"));
+    }
+
+    @Test
+    public void search_fallsBackToFilterWhenRpcMissing() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        assertEquals(200, runSearch("nature", 20, 0));
+
+        server.takeRequest();
+        RecordedRequest fallback = server.takeRequest();
+        assertEquals("GET", fallback.getMethod());
+        assertEquals("/rest/v1/wallpapers", fallback.getRequestUrl().encodedPath());
+        String or = fallback.getRequestUrl().queryParameter("or");
+        assertNotNull(or);
+        assertTrue(or.contains("name.ilike.*nature*"));
+        assertTrue(or.contains("tags.cs.{\"Nature\"}"));
+        assertEquals("20", fallback.getRequestUrl().queryParameter("limit"));
+    }
+
+    @Test
+    public void sanitize_stripsWildcardsAndCollapsesWhitespace() {
+        assertEquals("blue sky", WallpaperSearch.sanitize(" *blue%   sky* "));
+        assertEquals("", WallpaperSearch.sanitize(null));
+    }
+
+    private int runSearch(String query, int limit, int offset) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger code = new AtomicInteger(-1);
+        search.search(query, limit, offset, new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                code.set(response.code());
+                response.close();
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return code.get();
+    }
+}
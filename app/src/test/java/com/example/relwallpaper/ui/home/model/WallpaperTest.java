@@ -0,0 +1,69 @@
+package com.example.relwallpaper.ui.home.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class WallpaperTest {
+
+    @Test
+    public void getPaletteColors_parsesHexAndFallsBack() {
+        Wallpaper wallpaper = new Wallpaper();
+        wallpaper.setColorPalette(Arrays.asList("#112233", "#80FFFFFF", "teal", null));
+
+        assertArrayEquals(new int[] {0xFF112233, 0x80FFFFFF, Wallpaper.DEFAULT_COLOR, Wallpaper.DEFAULT_COLOR},
+                wallpaper.getPaletteColors());
+        assertEquals(0xFF112233, wallpaper.getPrimaryColorInt());
+    }
+
+    @Test
+    public void getPaletteColors_isCachedUntilPaletteChanges() {
+        Wallpaper wallpaper = new Wallpaper();
+        wallpaper.setColorPalette(Arrays.asList("#000000"));
+        int[] first = wallpaper.getPaletteColors();
+
+        assertSame(first, wallpaper.getPaletteColors());
+
+        wallpaper.setColorPalette(Arrays.asList("#FFFFFF"));
+        assertEquals(0xFFFFFFFF, wallpaper.getPaletteColors()[0]);
+    }
+
+    @Test
+    public void repeatedBindReads_doNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        Wallpaper wallpaper = new Wallpaper();
+        wallpaper.setUsername("rel");
+        wallpaper.setColorPalette(Arrays.asList("#112233", "#445566", "#778899"));
+        int sink = bindReads(wallpaper, 10_000);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        sink += bindReads(wallpaper, 100_000);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+        assertTrue(sink != 0);
+    }
+
+    private static int bindReads(Wallpaper wallpaper, int iterations) {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += wallpaper.getPrimaryColorInt();
+            sink += wallpaper.getPaletteColors().length;
+            sink += wallpaper.getFormattedUsername().length();
+        }
+        return sink;
+    }
+}
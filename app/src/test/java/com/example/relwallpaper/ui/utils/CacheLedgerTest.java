@@ -0,0 +1,137 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CacheLedgerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File images;
+    private File http;
+    private File database;
+    private final List<String> evictedImages = new ArrayList<>();
+    private final List<String> evictedHttp = new ArrayList<>();
+    private CacheLedger ledger;
+
+    @Before
+    public void setUp() throws IOException {
+        images = folder.newFolder("image_cache");
+        http = folder.newFolder("http_cache");
+        database = folder.newFile("wallpapers.db");
+        ledger = new CacheLedger()
+                .addDiskLruCache(CacheLedger.Kind.IMAGES, images, keys -> {
+                    evictedImages.addAll(keys);
+                    for (String key : keys) {
+                        new File(images, key + ".0").delete();
+                    }
+                })
+                .addDiskLruCache(CacheLedger.Kind.HTTP, http, evictedHttp::addAll)
+                .addFiles(CacheLedger.Kind.OFFLINE, keys -> { }, database, new File(folder.getRoot(), "wallpapers.db-wal"));
+    }
+
+    @Test
+    public void measuresEachCacheBySizeAndAge() throws IOException {
+        write(images, "journal", 10, 0);
+        write(images, "a.0", 100, 1_000);
+        write(images, "b.0", 200, 3_000);
+        write(http, "c.0", 5, 2_000);
+        write(http, "c.1", 50, 2_500);
+        write(folder.getRoot(), "wallpapers.db", 40, 4_000);
+
+        CacheLedger.Report report = ledger.measure();
+
+        CacheLedger.Usage imageUsage = report.usages.get(CacheLedger.Kind.IMAGES);
+        assertEquals(310, imageUsage.bytes);
+        assertEquals(2, imageUsage.entries);
+        assertEquals(1_000, imageUsage.oldest);
+        assertEquals(3_000, imageUsage.newest);
+        CacheLedger.Usage httpUsage = report.usages.get(CacheLedger.Kind.HTTP);
+        assertEquals(55, httpUsage.bytes);
+        assertEquals(1, httpUsage.entries);
+        assertEquals(2_500, httpUsage.newest);
+        assertEquals(40, report.usages.get(CacheLedger.Kind.OFFLINE).bytes);
+        assertEquals(405, report.totalBytes);
+    }
+
+    @Test
+    public void evictsLeastRecentlyWrittenEntriesAcrossCaches() throws IOException {
+        write(images, "old.0", 100, 1_000);
+        write(http, "older.1", 100, 500);
+        write(images, "new.0", 100, 5_000);
+        write(folder.getRoot(), "wallpapers.db", 100, 6_000);
+
+        CacheLedger.Report report = ledger.trimTo(250);
+
+        assertEquals(List.of("older"), evictedHttp);
+        assertEquals(List.of("old"), evictedImages);
+        assertEquals(200, report.freedBytes);
+        assertEquals(200, report.totalBytes);
+        assertFalse(new File(images, "old.0").exists());
+        assertTrue(new File(images, "new.0").exists());
+    }
+
+    @Test
+    public void leavesCachesAloneWithinBudget() throws IOException {
+        write(images, "a.0", 100, 1_000);
+
+        CacheLedger.Report report = ledger.trimTo(100);
+
+        assertEquals(0, report.freedBytes);
+        assertTrue(evictedImages.isEmpty());
+    }
+
+    @Test
+    public void evictsOfflineRowsOldestFirst() throws IOException {
+        List<String> evictedRows = new ArrayList<>();
+        CacheLedger rows = new CacheLedger()
+                .addDiskLruCache(CacheLedger.Kind.IMAGES, images, evictedImages::addAll)
+                .addRows(CacheLedger.Kind.OFFLINE, () -> List.of(
+                        new CacheLedger.Row("stale", 40, 1_000),
+                        new CacheLedger.Row("fresh", 40, 9_000)), evictedRows::addAll, database);
+        write(images, "a.0", 100, 5_000);
+        write(folder.getRoot(), "wallpapers.db", 100, 9_000);
+
+        CacheLedger.Report report = rows.trimTo(160);
+
+        assertEquals(List.of("stale"), evictedRows);
+        assertTrue(evictedImages.isEmpty());
+        assertEquals(40, report.freedBytes);
+        CacheLedger.Usage offline = report.usages.get(CacheLedger.Kind.OFFLINE);
+        assertEquals(60, offline.bytes);
+        assertEquals(1, offline.entries);
+    }
+
+    @Test
+    public void keepsEntriesWhoseEvictionFailed() throws IOException {
+        CacheLedger failing = new CacheLedger().addDiskLruCache(CacheLedger.Kind.HTTP, http, keys -> {
+            throw new IOException("locked");
+        });
+        write(http, "a.1", 100, 1_000);
+
+        CacheLedger.Report report = failing.trimTo(0);
+
+        assertEquals(0, report.freedBytes);
+        assertEquals(100, report.totalBytes);
+    }
+
+    private static void write(File directory, String name, int bytes, long lastModified) throws IOException {
+        File file = new File(directory, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[bytes]);
+        }
+        assertTrue(file.setLastModified(lastModified));
+    }
+}
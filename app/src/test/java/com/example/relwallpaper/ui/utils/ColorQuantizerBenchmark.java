@@ -0,0 +1,189 @@
+package com.example.relwallpaper.ui.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ColorQuantizerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 100;
+    private static final int MEASURED_ROUNDS = 300;
+    private static final int COLORS = 6;
+    private static final int[] SIDES = {100, 400};
+
+    public static void main(String[] args) {
+        ColorQuantizer[] quantizers = {new MedianCutQuantizer(), new WuQuantizer(), new OklabKMeansQuantizer()};
+        long sink = 0;
+        for (int side : SIDES) {
+            int[] pixels = image(side);
+            System.out.println(side + "x" + side + " (" + ColorHistogram.of(pixels, pixels.length).size() + " bins)");
+
+            for (ColorQuantizer quantizer : quantizers) {
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    sink += quantizer.quantize(ColorHistogram.of(pixels, pixels.length), COLORS).size();
+                }
+                long start = System.nanoTime();
+                QuantizedPalette palette = null;
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    palette = quantizer.quantize(ColorHistogram.of(pixels, pixels.length), COLORS);
+                }
+                long elapsed = System.nanoTime() - start;
+                report(quantizer.getClass().getSimpleName(), elapsed, pixels, ColorQuantizerTest.colors(palette));
+            }
+
+            for (int i = 0; i < WARMUP_ROUNDS / 10; i++) {
+                sink += ListKMeans.extract(pixels, COLORS).length;
+            }
+            int rounds = MEASURED_ROUNDS / 10;
+            long start = System.nanoTime();
+            int[] palette = null;
+            for (int i = 0; i < rounds; i++) {
+                palette = ListKMeans.extract(pixels, COLORS);
+            }
+            report("ListKMeans (previous)", (System.nanoTime() - start) * MEASURED_ROUNDS / rounds, pixels, palette);
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void report(String name, long elapsed, int[] pixels, int[] palette) {
+        System.out.printf("  %-22s %9.1f us/op   RGB error %5.1f   OKLab error %.4f%n",
+                name, elapsed / 1000.0 / MEASURED_ROUNDS, rgbError(pixels, palette), oklabError(pixels, palette));
+    }
+
+    static int[] image(int side) {
+        int[] pixels = new int[side * side];
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                double u = (double) x / side;
+                double v = (double) y / side;
+                int r = (int) (255 * (0.5 + 0.5 * Math.sin(6 * u + 2 * v)));
+                int g = (int) (255 * v * v);
+                int b = (int) (255 * (0.5 + 0.5 * Math.cos(9 * u * v)));
+                pixels[y * side + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return pixels;
+    }
+
+    static double rgbError(int[] pixels, int[] palette) {
+        double total = 0;
+        for (int pixel : pixels) {
+            int best = Integer.MAX_VALUE;
+            for (int color : palette) {
+                int dr = ((pixel >> 16) & 0xFF) - ((color >> 16) & 0xFF);
+                int dg = ((pixel >> 8) & 0xFF) - ((color >> 8) & 0xFF);
+                int db = (pixel & 0xFF) - (color & 0xFF);
+                best = Math.min(best, dr * dr + dg * dg + db * db);
+            }
+            total += Math.sqrt(best);
+        }
+        return total / pixels.length;
+    }
+
+    static double oklabError(int[] pixels, int[] palette) {
+        float[] paletteLab = new float[palette.length * 3];
+        for (int i = 0; i < palette.length; i++) {
+            Oklab.fromColor(palette[i], paletteLab, i * 3);
+        }
+        float[] lab = new float[3];
+        double total = 0;
+        for (int pixel : pixels) {
+            Oklab.fromColor(pixel, lab, 0);
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < palette.length; i++) {
+                double dl = lab[0] - paletteLab[i * 3];
+                double da = lab[1] - paletteLab[i * 3 + 1];
+                double db = lab[2] - paletteLab[i * 3 + 2];
+                best = Math.min(best, dl * dl + da * da + db * db);
+            }
+            total += Math.sqrt(best);
+        }
+        return total / pixels.length;
+    }
+
+    private static final class ListKMeans {
+
+        private static final class ColorData {
+            int r, g, b;
+
+            ColorData(int r, int g, int b) {
+                this.r = r;
+                this.g = g;
+                this.b = b;
+            }
+        }
+
+        static int[] extract(int[] source, int k) {
+            List<ColorData> pixels = new ArrayList<>();
+            for (int pixel : source) {
+                pixels.add(new ColorData((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF));
+            }
+            List<ColorData> centroids = cluster(pixels, k);
+            int[] palette = new int[centroids.size()];
+            for (int i = 0; i < palette.length; i++) {
+                ColorData color = centroids.get(i);
+                palette[i] = 0xFF000000 | (color.r << 16) | (color.g << 8) | color.b;
+            }
+            return palette;
+        }
+
+        private static List<ColorData> cluster(List<ColorData> pixels, int k) {
+            List<ColorData> centroids = new ArrayList<>();
+            for (int i = 0; i < k; i++) {
+                ColorData randomPixel = pixels.get((int) (Math.random() * pixels.size()));
+                centroids.add(new ColorData(randomPixel.r, randomPixel.g, randomPixel.b));
+            }
+            for (int iteration = 0; iteration < 10; iteration++) {
+                List<List<ColorData>> clusters = assign(pixels, centroids, k);
+                for (int i = 0; i < k; i++) {
+                    if (!clusters.get(i).isEmpty()) {
+                        int avgR = 0, avgG = 0, avgB = 0;
+                        for (ColorData pixel : clusters.get(i)) {
+                            avgR += pixel.r;
+                            avgG += pixel.g;
+                            avgB += pixel.b;
+                        }
+                        avgR /= clusters.get(i).size();
+                        avgG /= clusters.get(i).size();
+                        avgB /= clusters.get(i).size();
+                        centroids.set(i, new ColorData(avgR, avgG, avgB));
+                    }
+                }
+            }
+            List<List<ColorData>> finalClusters = assign(pixels, centroids, k);
+            Collections.sort(centroids, (c1, c2) -> {
+                int size1 = 0, size2 = 0;
+                for (int i = 0; i < centroids.size(); i++) {
+                    if (centroids.get(i) == c1) size1 = finalClusters.get(i).size();
+                    if (centroids.get(i) == c2) size2 = finalClusters.get(i).size();
+                }
+                return Integer.compare(size2, size1);
+            });
+            return centroids;
+        }
+
+        private static List<List<ColorData>> assign(List<ColorData> pixels, List<ColorData> centroids, int k) {
+            List<List<ColorData>> clusters = new ArrayList<>();
+            for (int i = 0; i < k; i++) {
+                clusters.add(new ArrayList<>());
+            }
+            for (ColorData pixel : pixels) {
+                int nearestCentroid = 0;
+                double minDistance = Double.MAX_VALUE;
+                for (int i = 0; i < centroids.size(); i++) {
+                    ColorData centroid = centroids.get(i);
+                    int dr = pixel.r - centroid.r;
+                    int dg = pixel.g - centroid.g;
+                    int db = pixel.b - centroid.b;
+                    double distance = Math.sqrt(dr * dr + dg * dg + db * db);
+                    if (distance < minDistance) {
+                        minDistance = distance;
+                        nearestCentroid = i;
+                    }
+                }
+                clusters.get(nearestCentroid).add(pixel);
+            }
+            return clusters;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ColorQuantizerTest {
+
+    private static final ColorQuantizer[] QUANTIZERS = {
+            new MedianCutQuantizer(), new WuQuantizer(), new OklabKMeansQuantizer()
+    };
+
+    @Test
+    public void histogramBinsPixelsAndSkipsTransparentOnes() {
+        int[] pixels = {0xFF102030, 0xFF112131, 0x00FFFFFF, 0xFFFFFFFF};
+        ColorHistogram histogram = ColorHistogram.of(pixels, pixels.length);
+
+        assertEquals(2, histogram.size());
+        assertEquals(3, histogram.getTotal());
+        assertEquals(0xFF112131, histogram.getColor(0));
+        assertEquals(2, histogram.getWeight(0));
+    }
+
+    @Test
+    public void histogramKeepsMeanOfLargeFlatImage() {
+        int[] pixels = new int[9_000_000];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        ColorHistogram histogram = ColorHistogram.of(pixels, pixels.length);
+
+        assertEquals(1, histogram.size());
+        assertEquals(0xFFFFFFFF, histogram.getColor(0));
+    }
+
+    @Test
+    public void ordersColorsByPopulation() {
+        int[] pixels = new int[100];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i < 70 ? 0xFF1E88E5 : i < 95 ? 0xFFFFFFFF : 0xFF000000;
+        }
+        ColorHistogram histogram = ColorHistogram.of(pixels, pixels.length);
+
+        for (ColorQuantizer quantizer : QUANTIZERS) {
+            QuantizedPalette palette = quantizer.quantize(histogram, 3);
+            assertArrayEquals(new int[]{0xFF1E88E5, 0xFFFFFFFF, 0xFF000000}, colors(palette));
+            assertEquals(70, palette.getPopulation(0));
+        }
+    }
+
+    @Test
+    public void returnsOnlyDistinctColorsWhenFewerThanRequested() {
+        int[] pixels = {0xFFFF0000, 0xFFFF0000, 0xFF00FF00};
+        ColorHistogram histogram = ColorHistogram.of(pixels, pixels.length);
+
+        for (ColorQuantizer quantizer : QUANTIZERS) {
+            assertArrayEquals(new int[]{0xFFFF0000, 0xFF00FF00}, colors(quantizer.quantize(histogram, 6)));
+        }
+    }
+
+    @Test
+    public void fillsPaletteForGradients() {
+        int[] pixels = gradient(64 * 64);
+        ColorHistogram histogram = ColorHistogram.of(pixels, pixels.length);
+
+        for (ColorQuantizer quantizer : QUANTIZERS) {
+            assertEquals(6, quantizer.quantize(histogram, 6).size());
+        }
+        OklabKMeansQuantizer kMeans = new OklabKMeansQuantizer();
+        int[] first = colors(kMeans.quantize(histogram, 6));
+        assertTrue(kMeans.getIterations() < 20);
+        assertArrayEquals(first, colors(new OklabKMeansQuantizer().quantize(histogram, 6)));
+    }
+
+    @Test
+    public void prefersSaturatedThemeColorOverDominantGrey() {
+        int[] pixels = new int[100];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i < 80 ? 0xFF808080 : 0xFFE53935;
+        }
+        QuantizedPalette palette = new WuQuantizer().quantize(ColorHistogram.of(pixels, pixels.length), 4);
+
+        assertEquals(0xFF808080, palette.getDominantColor(0));
+        assertEquals(0xFFE53935, palette.getThemeColor(0));
+        assertEquals(7, QuantizedPalette.empty().getThemeColor(7));
+    }
+
+    @Test
+    public void formatsHex() {
+        assertEquals("#0A0B0C", QuantizedPalette.toHex(0xFF0A0B0C));
+    }
+
+    static int[] colors(QuantizedPalette palette) {
+        int[] colors = new int[palette.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = palette.getColor(i);
+        }
+        return colors;
+    }
+
+    static int[] gradient(int count) {
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            int r = (i * 7) & 0xFF;
+            int g = (i / 64 * 4) & 0xFF;
+            int b = (i % 64 * 4) & 0xFF;
+            pixels[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        return pixels;
+    }
+}
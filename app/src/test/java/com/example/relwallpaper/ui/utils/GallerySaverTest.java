@@ -0,0 +1,42 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class GallerySaverTest {
+
+    @Test
+    public void recognisesOriginalFormatsFromTheirSignature() {
+        assertEquals("image/jpeg", sniff(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1}));
+        assertEquals("image/png", sniff(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}));
+        assertEquals("image/webp", sniff(ascii("RIFF\0\0\0\0WEBPVP8 ")));
+        assertEquals("image/gif", sniff(ascii("GIF89a")));
+        assertEquals("image/avif", sniff(ascii("\0\0\0 ftypavif")));
+        assertEquals("image/heic", sniff(ascii("\0\0\0\u0018ftypheic")));
+    }
+
+    @Test
+    public void returnsNullForUnknownOrTruncatedHeaders() {
+        assertNull(sniff(ascii("<html>")));
+        assertNull(sniff(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+    }
+
+    @Test
+    public void namesFileAfterWallpaperWithOriginalExtension() {
+        String fileName = GallerySaver.fileName("Blue hour / 2", "image/webp");
+        assertTrue(fileName, fileName.matches("Blue_hour___2_\\d+\\.webp"));
+        assertTrue(GallerySaver.fileName(null, "image/jpeg").matches("wallpaper_\\d+\\.jpg"));
+    }
+
+    private static String sniff(byte[] header) {
+        return GallerySaver.sniffMimeType(header, header.length);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
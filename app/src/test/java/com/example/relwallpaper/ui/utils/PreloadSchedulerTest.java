@@ -0,0 +1,128 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreloadSchedulerTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<PreloadScheduler.Completion> pending = new ArrayList<>();
+    private final List<String> cancelled = new ArrayList<>();
+    private PreloadScheduler<String> scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new PreloadScheduler<>((request, completion) -> {
+            started.add(request);
+            pending.add(completion);
+            return () -> cancelled.add(request);
+        }, 1, 3, 2);
+    }
+
+    @Test
+    public void runsHighestPriorityFirst() {
+        PreloadScheduler.Batch batch = scheduler.newBatch();
+        scheduler.submit(batch, "a", "a", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "b", "b", PreloadScheduler.Priority.CAROUSEL);
+        scheduler.submit(batch, "c", "c", PreloadScheduler.Priority.NEXT_PAGE);
+        scheduler.submit(batch, "d", "d", PreloadScheduler.Priority.NEXT_PAGE);
+
+        finish(0, true, false);
+        finish(1, true, false);
+        finish(2, true, false);
+
+        assertEquals(List.of("a", "c", "d", "b"), started);
+    }
+
+    @Test
+    public void scrollAheadYieldsToPagesAndCarousel() {
+        PreloadScheduler.Batch batch = scheduler.newBatch();
+        scheduler.submit(batch, "first", "first", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "scroll", "scroll", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "carousel", "carousel", PreloadScheduler.Priority.CAROUSEL);
+        scheduler.submit(batch, "page", "page", PreloadScheduler.Priority.NEXT_PAGE);
+
+        finish(0, true, false);
+        finish(1, true, false);
+        finish(2, true, false);
+
+        assertEquals(List.of("first", "page", "carousel", "scroll"), started);
+    }
+
+    @Test
+    public void deduplicatesQueuedAndCompletedKeys() {
+        PreloadScheduler.Batch batch = scheduler.newBatch();
+        scheduler.submit(batch, "a", "a", PreloadScheduler.Priority.NEXT_PAGE);
+        scheduler.submit(batch, "a", "a", PreloadScheduler.Priority.NEXT_PAGE);
+        finish(0, true, true);
+        scheduler.submit(batch, "a", "a", PreloadScheduler.Priority.NEXT_PAGE);
+
+        PreloadScheduler.Metrics metrics = scheduler.getMetrics();
+        assertEquals(1, started.size());
+        assertEquals(1, metrics.requested);
+        assertEquals(2, metrics.deduplicated);
+        assertEquals(1, metrics.alreadyCached);
+    }
+
+    @Test
+    public void dropsLowestPriorityWhenQueueIsFull() {
+        PreloadScheduler.Batch batch = scheduler.newBatch();
+        scheduler.submit(batch, "running", "running", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "s1", "s1", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "s2", "s2", PreloadScheduler.Priority.SPECULATIVE);
+        scheduler.submit(batch, "s3", "s3", PreloadScheduler.Priority.SPECULATIVE);
+
+        assertFalse(scheduler.submit(batch, "s4", "s4", PreloadScheduler.Priority.SPECULATIVE));
+        assertTrue(scheduler.submit(batch, "v", "v", PreloadScheduler.Priority.NEXT_PAGE));
+        assertEquals(3, scheduler.getQueuedCount());
+        assertEquals(2, scheduler.getMetrics().dropped);
+
+        finish(0, true, false);
+        assertEquals("v", started.get(1));
+    }
+
+    @Test
+    public void cancellingBatchKeepsSharedEntries() {
+        PreloadScheduler.Batch first = scheduler.newBatch();
+        PreloadScheduler.Batch second = scheduler.newBatch();
+        scheduler.submit(first, "a", "a", PreloadScheduler.Priority.NEXT_PAGE);
+        scheduler.submit(first, "b", "b", PreloadScheduler.Priority.NEXT_PAGE);
+        scheduler.submit(second, "b", "b", PreloadScheduler.Priority.NEXT_PAGE);
+
+        first.cancel();
+
+        assertTrue(first.isCancelled());
+        assertEquals(List.of("a"), cancelled);
+        assertEquals(List.of("a", "b"), started);
+        assertFalse(scheduler.submit(first, "c", "c", PreloadScheduler.Priority.NEXT_PAGE));
+        assertEquals(1, scheduler.getMetrics().wasted);
+    }
+
+    @Test
+    public void tracksHitsAndEvictedPreloadsAsWasted() {
+        PreloadScheduler.Batch batch = scheduler.newBatch();
+        for (String key : new String[] {"a", "b", "c"}) {
+            scheduler.submit(batch, key, key, PreloadScheduler.Priority.NEXT_PAGE);
+            finish(started.size() - 1, true, false);
+        }
+
+        scheduler.recordDisplay("c");
+        scheduler.recordDisplay("a");
+
+        PreloadScheduler.Metrics metrics = scheduler.getMetrics();
+        assertEquals(2, metrics.displayed);
+        assertEquals(1, metrics.hits);
+        assertEquals(1, metrics.wasted);
+        assertEquals(0.5, metrics.hitRate(), 0.0001);
+    }
+
+    private void finish(int index, boolean success, boolean fromCache) {
+        pending.get(index).onComplete(success, fromCache);
+    }
+}
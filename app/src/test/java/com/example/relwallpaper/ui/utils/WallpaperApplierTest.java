@@ -0,0 +1,32 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class WallpaperApplierTest {
+
+    @Test
+    public void cropsWideSourceToTargetAspectAroundCentre() {
+        assertArrayEquals(new int[]{1500, 0, 2500, 2000}, WallpaperApplier.centerCrop(4000, 2000, 1080, 2160));
+    }
+
+    @Test
+    public void cropsTallSourceToTargetAspectAroundCentre() {
+        assertArrayEquals(new int[]{0, 500, 1000, 1500}, WallpaperApplier.centerCrop(1000, 2000, 1440, 1440));
+    }
+
+    @Test
+    public void keepsSourceWithMatchingAspect() {
+        assertArrayEquals(new int[]{0, 0, 2160, 4320}, WallpaperApplier.centerCrop(2160, 4320, 1080, 2160));
+    }
+
+    @Test
+    public void samplesDownWithoutGoingBelowTarget() {
+        assertEquals(1, WallpaperApplier.sampleSize(1080, 2160, 1080, 2160));
+        assertEquals(2, WallpaperApplier.sampleSize(2160, 4320, 1080, 2160));
+        assertEquals(4, WallpaperApplier.sampleSize(6000, 12000, 1080, 2160));
+        assertEquals(1, WallpaperApplier.sampleSize(2000, 4000, 1080, 2160));
+    }
+}
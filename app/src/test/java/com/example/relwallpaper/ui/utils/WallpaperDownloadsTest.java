@@ -0,0 +1,37 @@
+package com.example.relwallpaper.ui.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class WallpaperDownloadsTest {
+
+    @Test
+    public void parsesSatisfiedContentRange() {
+        assertArrayEquals(new long[]{1000, 4999, 5000}, WallpaperDownloads.parseContentRange("bytes 1000-4999/5000"));
+        assertArrayEquals(new long[]{0, 9, -1}, WallpaperDownloads.parseContentRange("bytes 0-9/*"));
+    }
+
+    @Test
+    public void parsesUnsatisfiedContentRange() {
+        assertArrayEquals(new long[]{-1, -1, 5000}, WallpaperDownloads.parseContentRange("bytes */5000"));
+    }
+
+    @Test
+    public void rejectsMalformedContentRange() {
+        assertNull(WallpaperDownloads.parseContentRange(null));
+        assertNull(WallpaperDownloads.parseContentRange("items 0-9/10"));
+        assertNull(WallpaperDownloads.parseContentRange("bytes 10-5/20"));
+        assertNull(WallpaperDownloads.parseContentRange("bytes 0-20/20"));
+        assertNull(WallpaperDownloads.parseContentRange("bytes a-b/c"));
+    }
+
+    @Test
+    public void limitsTransfersByNetworkType() {
+        assertEquals(0, WallpaperDownloads.transferLimit(false, true));
+        assertEquals(1, WallpaperDownloads.transferLimit(true, false));
+        assertEquals(3, WallpaperDownloads.transferLimit(true, true));
+    }
+}
@@ -0,0 +1,56 @@
+create extension if not exists pg_trgm;
+
+create index if not exists wallpapers_name_trgm_idx
+    on public.wallpapers using gin (name gin_trgm_ops);
+
+create index if not exists wallpapers_description_trgm_idx
+    on public.wallpapers using gin (description gin_trgm_ops);
+
+create index if not exists wallpapers_search_fts_idx
+    on public.wallpapers using gin (
+        to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))
+    );
+
+create index if not exists wallpapers_tags_idx
+    on public.wallpapers using gin (tags);
+
+create index if not exists wallpapers_created_at_id_idx
+    on public.wallpapers (created_at desc, id desc);
+
+create or replace function public.search_wallpapers(
+    search_query text,
+    page_limit int default 20,
+    page_offset int default 0
+)
+returns setof public.wallpapers
+language sql
+stable
+as $$
+    with q as (
+        select nullif(trim(search_query), '') as term,
+               websearch_to_tsquery('simple', coalesce(search_query, '')) as ts
+    )
+    select w.*
+    from public.wallpapers w
+    left join public.users u on u.id = w.user_id
+    cross join q
+    where q.term is null
+       or to_tsvector('simple', coalesce(w.name, '') || ' ' || coalesce(w.description, '')) @@ q.ts
+       or w.name ilike '%' || q.term || '%'
+       or w.description ilike '%' || q.term || '%'
+       or u.username ilike '%' || q.term || '%'
+       or exists (select 1 from unnest(w.tags) t where t ilike q.term)
+    order by
+        case when q.term is null then 0
+             else ts_rank(
+                     to_tsvector('simple', coalesce(w.name, '') || ' ' || coalesce(w.description, '')),
+                     q.ts)
+                  + similarity(coalesce(w.name, ''), q.term)
+        end desc,
+        w.created_at desc,
+        w.id desc
+    limit greatest(page_limit, 0)
+    offset greatest(page_offset, 0);
+$$;
+
+grant execute on function public.search_wallpapers(text, int, int) to anon, authenticated;
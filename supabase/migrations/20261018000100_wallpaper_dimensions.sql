@@ -0,0 +1,3 @@
+alter table public.wallpapers
+    add column if not exists width int check (width > 0),
+    add column if not exists height int check (height > 0);
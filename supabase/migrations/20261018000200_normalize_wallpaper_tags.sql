@@ -0,0 +1,43 @@
+create or replace function public.normalize_wallpaper_tags(raw text[])
+returns text[]
+language sql
+immutable
+as $$
+    select coalesce(array_agg(distinct_tags.tag order by distinct_tags.first_seen), '{}')
+    from (
+        select normalized.tag, min(normalized.ord) as first_seen
+        from (
+            select coalesce(p.tag, cleaned.tag) as tag, cleaned.ord
+            from (
+                select regexp_replace(trim(t), '\s+', ' ', 'g') as tag, ord
+                from unnest(raw) with ordinality as u(t, ord)
+                where t is not null and trim(t) <> ''
+            ) cleaned
+            left join unnest(array[
+                'For Fun', 'Doodle', 'Nature', 'Shape', 'Retro',
+                'Branding', 'Motif', 'Blob', 'Gradients', 'Elements',
+                'Art & Culture', 'Blurred'
+            ]) as p(tag) on lower(p.tag) = lower(cleaned.tag)
+        ) normalized
+        group by normalized.tag
+    ) distinct_tags
+$$;
+
+update public.wallpapers
+set tags = public.normalize_wallpaper_tags(tags)
+where tags is distinct from public.normalize_wallpaper_tags(tags);
+
+create or replace function public.wallpapers_normalize_tags()
+returns trigger
+language plpgsql
+as $$
+begin
+    new.tags := public.normalize_wallpaper_tags(new.tags);
+    return new;
+end;
+$$;
+
+drop trigger if exists wallpapers_normalize_tags on public.wallpapers;
+create trigger wallpapers_normalize_tags
+    before insert or update of tags on public.wallpapers
+    for each row execute function public.wallpapers_normalize_tags();
@@ -0,0 +1,38 @@
+create or replace function public.search_wallpapers(
+    search_query text,
+    page_limit int default 20,
+    page_offset int default 0
+)
+returns setof public.wallpapers
+language sql
+stable
+as $$
+    with q as (
+        select nullif(trim(search_query), '') as term,
+               '%' || replace(replace(replace(trim(coalesce(search_query, '')), '\', '\\'), '%', '\%'), '_', '\_') || '%'
+                   as pattern,
+               public.normalize_wallpaper_tags(array[search_query]) as tags,
+               websearch_to_tsquery('simple', coalesce(search_query, '')) as ts
+    )
+    select w.*
+    from public.wallpapers w
+    left join public.users u on u.id = w.user_id
+    cross join q
+    where q.term is null
+       or to_tsvector('simple', coalesce(w.name, '') || ' ' || coalesce(w.description, '')) @@ q.ts
+       or w.name ilike q.pattern
+       or w.description ilike q.pattern
+       or u.username ilike q.pattern
+       or w.tags @> q.tags
+    order by
+        case when q.term is null then 0
+             else ts_rank(
+                     to_tsvector('simple', coalesce(w.name, '') || ' ' || coalesce(w.description, '')),
+                     q.ts)
+                  + similarity(coalesce(w.name, ''), q.term)
+        end desc,
+        w.created_at desc,
+        w.id desc
+    limit greatest(page_limit, 0)
+    offset greatest(page_offset, 0);
+$$;